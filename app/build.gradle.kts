@@ -19,17 +19,26 @@ android {
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            // Safe now that API models use hand-written Gson adapters (see proguard-rules.pro)
+            isMinifyEnabled = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
             )
         }
     }
+    androidResources {
+        // PlaceIndex memory-maps places.idx straight out of the APK
+        noCompress += "idx"
+    }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
+    testOptions {
+        // Host tests drive classes that log through android.util.Log
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -43,6 +52,10 @@ dependencies {
     implementation("com.mapbox.maps:android:10.16.0")
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
+    implementation("com.squareup.okhttp3:okhttp:3.14.9")
+
+    // WorkManager for background weather prefetch
+    implementation("androidx.work:work-runtime:2.9.1")
     
     // MPAndroidChart for temperature trend visualization
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
@@ -53,6 +66,7 @@ dependencies {
     implementation(libs.play.services.auth)
     
     testImplementation(libs.junit)
+    testImplementation("com.squareup.okhttp3:mockwebserver:3.14.9")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
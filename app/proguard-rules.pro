@@ -14,8 +14,36 @@
 
 # Uncomment this to preserve the line number information for
 # debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+-keepattributes SourceFile,LineNumberTable
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# ==================== Retrofit ====================
+# Retrofit reads generic signatures and annotations of ApiService at runtime
+-keepattributes Signature, InnerClasses, EnclosingMethod
+-keepattributes RuntimeVisibleAnnotations, RuntimeVisibleParameterAnnotations, AnnotationDefault
+-keep interface com.example.teragaurd.ApiService { *; }
+# R8 full mode strips signatures from non-kept classes; Call<T> and Response<T> must keep them
+-keep,allowobfuscation,allowshrinking interface retrofit2.Call
+-keep,allowobfuscation,allowshrinking class retrofit2.Response
+-dontwarn javax.annotation.**
+-dontwarn kotlin.Unit
+-dontwarn retrofit2.KotlinExtensions
+-dontwarn retrofit2.KotlinExtensions$*
+
+# ==================== OkHttp / Okio ====================
+-dontwarn okhttp3.internal.platform.**
+-dontwarn org.conscrypt.**
+-dontwarn org.bouncycastle.**
+-dontwarn org.openjsse.**
+-dontwarn org.codehaus.mojo.animal_sniffer.*
+
+# ==================== Gson models ====================
+# WeatherResponse, AqiResponse and ForecastResponse are decoded by the hand-written
+# adapters registered in NetworkModule, so they need no keep rules and may be renamed
+
+# ==================== MPAndroidChart ====================
+# Chart animations drive properties through ObjectAnimator by name
+-keep class com.github.mikephil.charting.** { *; }
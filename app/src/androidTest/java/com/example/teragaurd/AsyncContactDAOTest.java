@@ -0,0 +1,187 @@
+package com.example.teragaurd;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Build;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Drives AsyncContactDAO from the main thread under a StrictMode policy that
+ * records every disk read and write made there; the DAO must cause none, and
+ * its callbacks must arrive on the main thread. Uses a separate database file
+ */
+@RunWith(AndroidJUnit4.class)
+public class AsyncContactDAOTest {
+
+    private static final String TEST_DATABASE = "async_contacts_test.db";
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private DatabaseHelper helper;
+    private AsyncContactDAO contactDAO;
+
+    // Written by the StrictMode listener and by callbacks, both on the main thread
+    private final List<Violation> violations = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> callbackResults = Collections.synchronizedList(new ArrayList<>());
+    private StrictMode.ThreadPolicy previousPolicy;
+
+    @Before
+    public void setUp() {
+        // StrictMode.ThreadPolicy.Builder.penaltyListener() needs API 28
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.P);
+
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        contactDAO = new AsyncContactDAO(helper);
+
+        instrumentation.runOnMainSync(() -> {
+            previousPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Runnable::run, violations::add)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (helper == null) return;
+        instrumentation.runOnMainSync(() -> StrictMode.setThreadPolicy(previousPolicy));
+        contactDAO.close();
+        // close() is queued behind the writes; wait for it before deleting the file
+        AppExecutors.getInstance().diskIO().submit(() -> { }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void asyncCalls_doNotTouchDiskOnMainThread() throws Exception {
+        List<EmergencyContact> presets = new ArrayList<>();
+        presets.add(new EmergencyContact("Police", "100", false));
+        presets.add(new EmergencyContact("Ambulance", "102", false));
+        EmergencyContact contact = new EmergencyContact("Mom", "+91 98450 12345", true);
+
+        List<Future<?>> writes = new ArrayList<>();
+        instrumentation.runOnMainSync(() -> {
+            writes.add(contactDAO.insertPresetsIfEmpty(presets, this::onMainThreadResult));
+            writes.add(contactDAO.insertContact(contact, this::onMainThreadResult));
+        });
+        for (Future<?> write : writes) {
+            write.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        List<Future<?>> reads = new ArrayList<>();
+        instrumentation.runOnMainSync(() -> {
+            reads.add(contactDAO.getAllContacts(this::onMainThreadResult));
+            reads.add(contactDAO.findByNumber("98450 12345", this::onMainThreadResult));
+        });
+        // Readers run in parallel, so these two callbacks may arrive in either order
+        assertEquals(3, ((List<?>) reads.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).size());
+        assertEquals(contact.getId(), ((EmergencyContact) reads.get(1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS)).getId());
+
+        List<Future<Integer>> deletes = new ArrayList<>();
+        instrumentation.runOnMainSync(() -> deletes.add(contactDAO.deleteContact(contact, this::onMainThreadResult)));
+        assertEquals(1, deletes.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).intValue());
+
+        // Callbacks are posted before each future completes; let the main thread run them
+        instrumentation.waitForIdleSync();
+        assertEquals(5, callbackResults.size());
+        assertTrue(violations.toString(), violations.isEmpty());
+    }
+
+    @Test
+    public void close_doesNotBreakReadsInFlight() throws Exception {
+        List<EmergencyContact> contacts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            contacts.add(new EmergencyContact("Contact " + i, "90000" + (10000 + i), true));
+        }
+        contactDAO.insertPresetsIfEmpty(contacts, null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        // Each round reopens the DAO and closes it while its reads are running
+        for (int round = 0; round < 50; round++) {
+            List<Future<List<EmergencyContact>>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(contactDAO.getAllContacts(null));
+            }
+            contactDAO.close();
+            for (Future<List<EmergencyContact>> read : reads) {
+                assertEquals(500, read.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).size());
+            }
+        }
+        // Still usable after close(): the next call reopens
+        assertEquals(500, contactDAO.getAllContacts(null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    public void insertIfNew_savesRepeatedImportOnce() throws Exception {
+        List<Future<Long>> imports = new ArrayList<>();
+        instrumentation.runOnMainSync(() -> {
+            // Same number, formatted differently, imported twice in quick succession
+            imports.add(contactDAO.insertIfNew(new EmergencyContact("Mom", "+91 98450 12345", true), null));
+            imports.add(contactDAO.insertIfNew(new EmergencyContact("Mom", "9845012345", true), null));
+        });
+
+        assertTrue(imports.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS) > 0);
+        assertEquals(ContactDAO.ALREADY_SAVED, imports.get(1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).longValue());
+        assertEquals(1, contactDAO.getAllContacts(null).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    public void failedTask_stillCallsBack() throws Exception {
+        List<Future<Integer>> deletes = new ArrayList<>();
+        // A null contact makes the write throw inside the task
+        instrumentation.runOnMainSync(() -> deletes.add(contactDAO.deleteContact(null, this::onMainThreadResult)));
+        try {
+            deletes.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("Failed delete completed normally");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof RuntimeException);
+        }
+
+        instrumentation.waitForIdleSync();
+        assertEquals(Collections.singletonList(0), callbackResults);
+    }
+
+    @Test
+    public void directDaoCallOnMainThread_isDetected() {
+        // Proves the policy above would catch a regression to synchronous access
+        instrumentation.runOnMainSync(() -> {
+            ContactDAO direct = new ContactDAO(helper);
+            direct.open();
+            direct.getContactsCount();
+            direct.close();
+        });
+        instrumentation.waitForIdleSync();
+
+        assertFalse(violations.isEmpty());
+    }
+
+    private void onMainThreadResult(Object result) {
+        assertEquals(Looper.getMainLooper(), Looper.myLooper());
+        callbackResults.add(result);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks ContactDAO.findByNumber against the suffix rules the import dialogs
+ * used before, that the lookup runs off the reversed-number index, and that
+ * upgrading from version 4 fills in the new columns. Uses a separate database file
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContactNumberLookupTest {
+
+    private static final String TEST_DATABASE = "number_lookup_test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+    private ContactDAO contactDAO;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        if (contactDAO != null) contactDAO.close();
+        if (helper != null) helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void findByNumber_matchesEitherSuffixDirection() {
+        openDao();
+        EmergencyContact saved = new EmergencyContact("Mom", "+91 98450-12345", true);
+        contactDAO.insertContact(saved);
+        EmergencyContact local = new EmergencyContact("Office", "2345 6789", true);
+        contactDAO.insertContact(local);
+
+        // Same number, different formatting
+        assertEquals(saved.getId(), contactDAO.findByNumber("+919845012345").getId());
+        // Picked number lacks the country code the saved one has
+        assertEquals(saved.getId(), contactDAO.findByNumber("98450 12345").getId());
+        // Picked number has a country code the saved one lacks
+        assertEquals(local.getId(), contactDAO.findByNumber("+91 80 2345 6789").getId());
+
+        assertNull(contactDAO.findByNumber("98450 12346"));
+        assertNull(contactDAO.findByNumber("Unknown"));
+    }
+
+    @Test
+    public void findByNumber_followsUpdates() {
+        openDao();
+        EmergencyContact contact = new EmergencyContact("Brother", "9000000001", true);
+        contactDAO.insertContact(contact);
+
+        contact.setPhoneNumber("9000000002");
+        contactDAO.updateContact(contact);
+
+        assertNull(contactDAO.findByNumber("9000000001"));
+        assertEquals(contact.getId(), contactDAO.findByNumber("9000000002").getId());
+    }
+
+    @Test
+    public void findByNumber_findsOneAmongManyContacts() {
+        openDao();
+        List<EmergencyContact> contacts = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            contacts.add(new EmergencyContact("Contact " + i,
+                    String.format(Locale.US, "+91 98450%05d", i), true));
+        }
+        contactDAO.insertAll(contacts);
+
+        assertEquals(contacts.get(1234).getId(), contactDAO.findByNumber("9845001234").getId());
+    }
+
+    @Test
+    public void findByNumber_usesReversedNumberIndex() {
+        openDao();
+        SQLiteDatabase database = helper.getReadableDatabase();
+        String plan = "";
+        try (Cursor cursor = database.rawQuery("EXPLAIN QUERY PLAN SELECT * FROM " +
+                DatabaseHelper.TABLE_EMERGENCY_CONTACTS + " WHERE (" +
+                DatabaseHelper.COLUMN_REVERSED_NUMBER + " >= ? AND " +
+                DatabaseHelper.COLUMN_REVERSED_NUMBER + " < ?) OR " +
+                DatabaseHelper.COLUMN_REVERSED_NUMBER + " IN (?, ?)",
+                new String[]{"21", "22", "2", "21"})) {
+            while (cursor.moveToNext()) {
+                plan += cursor.getString(cursor.getColumnCount() - 1) + "\n";
+            }
+        }
+
+        assertTrue(plan, plan.contains("idx_contacts_reversed_number"));
+        assertFalse(plan, plan.contains("SCAN " + DatabaseHelper.TABLE_EMERGENCY_CONTACTS));
+    }
+
+    @Test
+    public void upgradeFromVersion4_backfillsNumberColumns() {
+        SQLiteDatabase old = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(TEST_DATABASE), null);
+        old.execSQL("CREATE TABLE " + DatabaseHelper.TABLE_EMERGENCY_CONTACTS + " (" +
+                DatabaseHelper.COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                DatabaseHelper.COLUMN_NAME + " TEXT NOT NULL, " +
+                DatabaseHelper.COLUMN_PHONE_NUMBER + " TEXT NOT NULL, " +
+                DatabaseHelper.COLUMN_IS_EDITABLE + " INTEGER DEFAULT 1);");
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_NAME, "Police");
+        values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, "100");
+        values.put(DatabaseHelper.COLUMN_IS_EDITABLE, 0);
+        old.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, values);
+        values.put(DatabaseHelper.COLUMN_NAME, "Dad");
+        values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, "+91 99000-11223");
+        values.put(DatabaseHelper.COLUMN_IS_EDITABLE, 1);
+        old.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, values);
+        old.setVersion(4);
+        old.close();
+
+        openDao();
+        assertEquals("Dad", contactDAO.findByNumber("9900011223").getName());
+        assertEquals("Police", contactDAO.findByNumber("100").getName());
+
+        try (Cursor cursor = helper.getReadableDatabase().query(DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
+                new String[]{DatabaseHelper.COLUMN_NORMALIZED_NUMBER},
+                DatabaseHelper.COLUMN_NAME + " = ?", new String[]{"Dad"}, null, null, null)) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("919900011223", cursor.getString(0));
+        }
+    }
+
+    private void openDao() {
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        contactDAO = new ContactDAO(helper);
+        contactDAO.open();
+    }
+}
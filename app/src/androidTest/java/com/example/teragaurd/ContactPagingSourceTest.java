@@ -0,0 +1,127 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scrolls ContactPagingSource through 100k contacts and checks that the rows
+ * held in memory stay bounded by the page window, that scrolling fetches pages
+ * by keyset, and that refresh() picks up deletes. Loads run inline so every
+ * position is available as soon as it is requested. Uses a separate database file
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContactPagingSourceTest {
+
+    private static final String TAG = "ContactPagingSource";
+    private static final String TEST_DATABASE = "contact_paging_test.db";
+    private static final int ROWS = 100000;
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 5;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private ContactDAO contactDAO;
+    private ContactPagingSource source;
+    private int countChanges = 0;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        contactDAO = new ContactDAO(helper);
+        contactDAO.open();
+        source = new ContactPagingSource(contactDAO, Runnable::run, Runnable::run, PAGE_SIZE, MAX_PAGES,
+                new ContactPagingSource.Listener() {
+                    @Override
+                    public void onCountChanged(int count) {
+                        countChanges++;
+                    }
+
+                    @Override
+                    public void onPageLoaded(int positionStart, int itemCount) {
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        contactDAO.close();
+        helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void scrollThrough100k_keepsMemoryBounded() {
+        insertContacts(ROWS);
+        source.refresh();
+        assertEquals(ROWS, source.getCount());
+
+        int maxLoaded = 0;
+        for (int position = 0; position < ROWS; position++) {
+            EmergencyContact contact = source.get(position);
+            assertEquals(position + 1, contact.getId());
+            int loaded = source.getLoadedItemCount();
+            assertTrue("Held " + loaded + " rows at position " + position, loaded <= MAX_PAGES * PAGE_SIZE);
+            maxLoaded = Math.max(maxLoaded, loaded);
+        }
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d rows scrolled: max rows held=%d, keyset loads=%d, offset loads=%d",
+                ROWS, maxLoaded, source.getKeysetLoadCount(), source.getOffsetLoadCount()));
+        assertEquals(0, source.getOffsetLoadCount());
+    }
+
+    @Test
+    public void scrollBackFromJump_usesKeysetAfterOneOffsetLoad() {
+        insertContacts(10000);
+        source.refresh();
+
+        for (int position = 9999; position >= 0; position--) {
+            assertEquals(position + 1, source.get(position).getId());
+            assertTrue(source.getLoadedItemCount() <= MAX_PAGES * PAGE_SIZE);
+        }
+
+        // Only landing on the last page had no loaded neighbour to seek from
+        assertEquals(1, source.getOffsetLoadCount());
+    }
+
+    @Test
+    public void refresh_afterDelete_showsShiftedRows() {
+        insertContacts(200);
+        source.refresh();
+        assertEquals(3, source.get(2).getId());
+
+        contactDAO.deleteContact(2);
+        source.refresh();
+
+        assertEquals(199, source.getCount());
+        assertEquals(2, countChanges);
+        // refresh() reloaded the page at the scroll position
+        assertEquals(4, source.get(2).getId());
+        assertEquals(200, source.get(198).getId());
+    }
+
+    private void insertContacts(int count) {
+        List<EmergencyContact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(new EmergencyContact("Contact " + i,
+                    String.format(Locale.US, "98450%05d", i), true));
+        }
+        assertEquals(count, contactDAO.insertAll(contacts));
+    }
+}
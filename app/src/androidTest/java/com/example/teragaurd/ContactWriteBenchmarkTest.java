@@ -0,0 +1,139 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Inserts 10k contacts three ways and logs the timings (adb logcat -s ContactWriteBenchmark):
+ * the previous per-row ContentValues path, per-row compiled statements, and
+ * insertAll in one transaction. Uses a separate database file
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContactWriteBenchmarkTest {
+
+    private static final String TAG = "ContactWriteBenchmark";
+    private static final String TEST_DATABASE = "contact_benchmark.db";
+    private static final int ROWS = 10000;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private SQLiteDatabase database;
+    private ContactDAO contactDAO;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        database = helper.getWritableDatabase();
+        contactDAO = new ContactDAO(helper);
+        contactDAO.open();
+    }
+
+    @After
+    public void tearDown() {
+        contactDAO.close();
+        helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void insertAll_matchesPerRowInserts() {
+        List<EmergencyContact> contacts = contacts(5);
+        assertEquals(5, contactDAO.insertAll(contacts));
+        for (EmergencyContact contact : contacts) {
+            assertTrue(contact.getId() > 0);
+            assertEquals(contact.getPhoneNumber(), contactDAO.getContactById(contact.getId()).getPhoneNumber());
+        }
+    }
+
+    @Test
+    public void upsertAll_updatesSavedAndInsertsNew() {
+        List<EmergencyContact> saved = contacts(3);
+        contactDAO.insertAll(saved);
+
+        saved.get(0).setName("Renamed");
+        List<EmergencyContact> batch = new ArrayList<>(saved);
+        batch.add(new EmergencyContact("New", "9999999999", true));
+        assertEquals(4, contactDAO.upsertAll(batch));
+
+        assertEquals(4, contactDAO.getContactsCount());
+        assertEquals("Renamed", contactDAO.getContactById(saved.get(0).getId()).getName());
+        assertTrue(batch.get(3).getId() > 0);
+    }
+
+    @Test
+    public void benchmark_insert10k() {
+        long contentValuesMillis = timeContentValuesInserts(contacts(ROWS));
+        clear();
+
+        long start = System.nanoTime();
+        for (EmergencyContact contact : contacts(ROWS)) {
+            contactDAO.insertContact(contact);
+        }
+        long compiledMillis = elapsedMillis(start);
+        clear();
+
+        start = System.nanoTime();
+        assertEquals(ROWS, contactDAO.insertAll(contacts(ROWS)));
+        long batchMillis = elapsedMillis(start);
+
+        assertEquals(ROWS, DatabaseUtils.queryNumEntries(database, DatabaseHelper.TABLE_EMERGENCY_CONTACTS));
+        Log.i(TAG, String.format(Locale.US,
+                "%d rows: ContentValues per-row=%d ms, compiled per-row=%d ms, insertAll=%d ms",
+                ROWS, contentValuesMillis, compiledMillis, batchMillis));
+        assertTrue(batchMillis < contentValuesMillis);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * The previous ContactDAO.insertContact: fresh ContentValues and an implicit transaction per row
+     */
+    private long timeContentValuesInserts(List<EmergencyContact> contacts) {
+        long start = System.nanoTime();
+        for (EmergencyContact contact : contacts) {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseHelper.COLUMN_NAME, contact.getName());
+            values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, contact.getPhoneNumber());
+            values.put(DatabaseHelper.COLUMN_IS_EDITABLE, contact.isEditable() ? 1 : 0);
+            contact.setId(database.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, values));
+        }
+        return elapsedMillis(start);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void clear() {
+        database.delete(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, null);
+    }
+
+    private static List<EmergencyContact> contacts(int count) {
+        List<EmergencyContact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(new EmergencyContact("Contact " + i,
+                    String.format(Locale.US, "98450%05d", i), true));
+        }
+        return contacts;
+    }
+}
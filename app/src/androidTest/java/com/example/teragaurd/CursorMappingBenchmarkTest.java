@@ -0,0 +1,222 @@
+package com.example.teragaurd;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.provider.CallLog;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToIntFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the RowMapper/CursorRows layer and times it on a 50k-row synthetic
+ * cursor against the previous per-row getColumnIndexOrThrow() mapping.
+ * Each variant is warmed up, then timed over several passes; the median
+ * per-row time is logged (adb logcat -s CursorMappingBenchmark)
+ */
+@RunWith(AndroidJUnit4.class)
+public class CursorMappingBenchmarkTest {
+
+    private static final String TAG = "CursorMappingBenchmark";
+    private static final int ROWS = 50000;
+    // Unmeasured passes to let the JIT compile both paths, then timed passes for the median
+    private static final int WARMUP_PASSES = 3;
+    private static final int MEASURED_PASSES = 9;
+
+    private static final String[] CONTACT_COLUMNS = {
+            DatabaseHelper.COLUMN_ID,
+            DatabaseHelper.COLUMN_NAME,
+            DatabaseHelper.COLUMN_PHONE_NUMBER,
+            DatabaseHelper.COLUMN_IS_EDITABLE
+    };
+
+    private static final String[] CALL_LOG_COLUMNS = {
+            CallLog.Calls.NUMBER,
+            CallLog.Calls.CACHED_NAME,
+            CallLog.Calls.TYPE,
+            CallLog.Calls.DATE,
+            CallLog.Calls.DURATION
+    };
+
+    @Test
+    public void toList_matchesPerRowLookup() {
+        List<EmergencyContact> expected = mapContactsPerRow(contactCursor(100));
+        List<EmergencyContact> actual = CursorRows.toList(contactCursor(100), ContactDAO.CONTACT_MAPPER);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getPhoneNumber(), actual.get(i).getPhoneNumber());
+            assertEquals(expected.get(i).isEditable(), actual.get(i).isEditable());
+        }
+    }
+
+    @Test
+    public void callLogMapper_readsEveryColumn() {
+        CallLogHelper.CallLogEntry entry = CursorRows.first(callLogCursor(3), CallLogHelper.CALL_LOG_MAPPER);
+
+        assertEquals("9845000000", entry.getNumber());
+        assertEquals("Caller 0", entry.getName());
+        assertEquals(CallLog.Calls.OUTGOING_TYPE, entry.getType());
+        assertEquals(1700000000000L, entry.getDate());
+        assertEquals(0, entry.getDuration());
+    }
+
+    @Test
+    public void iterateReusing_refillsOneHolder() {
+        EmergencyContact first = null;
+        int rows = 0;
+        for (EmergencyContact contact : CursorRows.iterateReusing(contactCursor(10), ContactDAO.CONTACT_MAPPER)) {
+            if (first == null) first = contact;
+            assertSame(first, contact);
+            assertEquals(rows + 1, contact.getId());
+            rows++;
+        }
+        assertEquals(10, rows);
+    }
+
+    @Test
+    public void iterator_closesCursorWhenExhaustedOrClosed() {
+        Cursor exhausted = contactCursor(2);
+        CursorRows.toList(exhausted, ContactDAO.CONTACT_MAPPER);
+        assertTrue(exhausted.isClosed());
+
+        Cursor abandoned = contactCursor(5);
+        CursorRows.RowIterator<EmergencyContact> iterator = CursorRows.iterate(abandoned, ContactDAO.CONTACT_MAPPER);
+        iterator.next();
+        assertFalse(abandoned.isClosed());
+        iterator.close();
+        assertTrue(abandoned.isClosed());
+
+        Cursor wrongColumns = callLogCursor(1);
+        try {
+            CursorRows.toList(wrongColumns, ContactDAO.CONTACT_MAPPER);
+            fail("Missing column not reported");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(wrongColumns.isClosed());
+        }
+
+        assertTrue(CursorRows.toList(null, ContactDAO.CONTACT_MAPPER).isEmpty());
+    }
+
+    @Test
+    public void benchmark_map50k() {
+        double contactsPerRow = medianNanosPerRow(CONTACT_COLUMNS,
+                cursor -> mapContactsPerRow(cursor).size());
+        double contactsMapped = medianNanosPerRow(CONTACT_COLUMNS,
+                cursor -> CursorRows.toList(cursor, ContactDAO.CONTACT_MAPPER).size());
+        double contactsReused = medianNanosPerRow(CONTACT_COLUMNS, cursor -> {
+            int rows = 0;
+            for (EmergencyContact contact : CursorRows.iterateReusing(cursor, ContactDAO.CONTACT_MAPPER)) {
+                if (contact.getId() > 0) rows++;
+            }
+            return rows;
+        });
+        double callsPerRow = medianNanosPerRow(CALL_LOG_COLUMNS,
+                cursor -> mapCallsPerRow(cursor).size());
+        double callsMapped = medianNanosPerRow(CALL_LOG_COLUMNS,
+                cursor -> CursorRows.toList(cursor, CallLogHelper.CALL_LOG_MAPPER).size());
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d rows, %d warm-up + median of %d passes, ns/row: contacts per-row lookup=%.0f, mapper=%.0f, mapper reusing=%.0f; "
+                        + "call log per-row lookup=%.0f, mapper=%.0f",
+                ROWS, WARMUP_PASSES, MEASURED_PASSES, contactsPerRow, contactsMapped, contactsReused, callsPerRow, callsMapped));
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * The previous ContactDAO.cursorToContact loop: every column looked up on every row
+     */
+    private static List<EmergencyContact> mapContactsPerRow(Cursor cursor) {
+        List<EmergencyContact> contacts = new ArrayList<>();
+        if (cursor.moveToFirst()) {
+            do {
+                long id = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
+                String name = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NAME));
+                String phoneNumber = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_PHONE_NUMBER));
+                boolean isEditable = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_IS_EDITABLE)) == 1;
+
+                EmergencyContact contact = new EmergencyContact(name, phoneNumber, isEditable);
+                contact.setId(id);
+                contacts.add(contact);
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return contacts;
+    }
+
+    /**
+     * The previous CallLogHelper loop
+     */
+    private static List<CallLogHelper.CallLogEntry> mapCallsPerRow(Cursor cursor) {
+        List<CallLogHelper.CallLogEntry> calls = new ArrayList<>();
+        if (cursor.moveToFirst()) {
+            do {
+                String number = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.NUMBER));
+                String name = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.CACHED_NAME));
+                int type = cursor.getInt(cursor.getColumnIndexOrThrow(CallLog.Calls.TYPE));
+                long date = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DATE));
+                long duration = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DURATION));
+
+                calls.add(new CallLogHelper.CallLogEntry(number, name, type, date, duration));
+            } while (cursor.moveToNext());
+        }
+        cursor.close();
+        return calls;
+    }
+
+    private static Cursor contactCursor(int rows) {
+        MatrixCursor cursor = new MatrixCursor(CONTACT_COLUMNS, rows);
+        for (int i = 0; i < rows; i++) {
+            cursor.addRow(new Object[]{i + 1L, "Contact " + i, String.format(Locale.US, "98450%05d", i), 1});
+        }
+        return cursor;
+    }
+
+    private static Cursor callLogCursor(int rows) {
+        MatrixCursor cursor = new MatrixCursor(CALL_LOG_COLUMNS, rows);
+        for (int i = 0; i < rows; i++) {
+            cursor.addRow(new Object[]{String.format(Locale.US, "98450%05d", i), "Caller " + i,
+                    CallLog.Calls.OUTGOING_TYPE, 1700000000000L - i, (long) i});
+        }
+        return cursor;
+    }
+
+    /**
+     * Run warm-up passes, then timed passes over fresh 50k-row cursors
+     * Cursors are built outside the timed region
+     * @param columns CONTACT_COLUMNS or CALL_LOG_COLUMNS
+     * @param pass Maps the cursor and returns the number of rows it produced
+     * @return Median time per row of the timed passes
+     */
+    private static double medianNanosPerRow(String[] columns, ToIntFunction<Cursor> pass) {
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            assertEquals(ROWS, pass.applyAsInt(newCursor(columns)));
+        }
+        double[] nanosPerRow = new double[MEASURED_PASSES];
+        for (int i = 0; i < MEASURED_PASSES; i++) {
+            Cursor cursor = newCursor(columns);
+            long start = System.nanoTime();
+            assertEquals(ROWS, pass.applyAsInt(cursor));
+            nanosPerRow[i] = (System.nanoTime() - start) / (double) ROWS;
+        }
+        Arrays.sort(nanosPerRow);
+        return nanosPerRow[MEASURED_PASSES / 2];
+    }
+
+    private static Cursor newCursor(String[] columns) {
+        return columns == CONTACT_COLUMNS ? contactCursor(ROWS) : callLogCursor(ROWS);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the shared WAL connection: readers on other threads keep running
+ * while a writer holds an open transaction, and closing a DAO leaves the
+ * shared database open. Uses a separate database file so app data is untouched
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseConcurrencyTest {
+
+    private static final String TEST_DATABASE = "concurrency_test.db";
+    private static final int READERS = 4;
+    private static final int QUERIES_PER_READER = 50;
+    private static final int SEED_ROWS = 200;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private SQLiteDatabase database;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        database = helper.getWritableDatabase();
+
+        database.beginTransaction();
+        try {
+            for (int i = 0; i < SEED_ROWS; i++) {
+                database.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, contactValues(i));
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void walIsEnabled() {
+        assertTrue(database.isWriteAheadLoggingEnabled());
+    }
+
+    @Test
+    public void readersDoNotWaitForOpenWriteTransaction() throws Exception {
+        CountDownLatch writerInTransaction = new CountDownLatch(1);
+        CountDownLatch readersDone = new CountDownLatch(READERS);
+        ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+
+        try {
+            Future<Boolean> writer = pool.submit(() -> {
+                database.beginTransaction();
+                try {
+                    database.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, contactValues(SEED_ROWS));
+                    writerInTransaction.countDown();
+                    // Hold the write lock until every reader has finished
+                    boolean readersFinished = readersDone.await(10, TimeUnit.SECONDS);
+                    database.setTransactionSuccessful();
+                    return readersFinished;
+                } finally {
+                    database.endTransaction();
+                }
+            });
+
+            assertTrue(writerInTransaction.await(5, TimeUnit.SECONDS));
+            List<Future<Long>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(pool.submit(() -> {
+                    long count = 0;
+                    for (int q = 0; q < QUERIES_PER_READER; q++) {
+                        count = countContacts();
+                    }
+                    readersDone.countDown();
+                    return count;
+                }));
+            }
+
+            assertTrue("readers blocked behind the writer", writer.get(15, TimeUnit.SECONDS));
+            for (Future<Long> reader : readers) {
+                // Readers see the last committed snapshot, not the open transaction
+                assertEquals(SEED_ROWS, (long) reader.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(SEED_ROWS + 1, countContacts());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void closingDaoKeepsSharedConnectionOpen() {
+        SQLiteDatabase shared = DatabaseHelper.getInstance(context).getWritableDatabase();
+        ContactDAO contactDAO = new ContactDAO(context);
+        contactDAO.open();
+        contactDAO.close();
+
+        assertTrue(shared.isOpen());
+        assertSame(shared, DatabaseHelper.getInstance(context).getWritableDatabase());
+    }
+
+    private long countContacts() {
+        return DatabaseUtils.queryNumEntries(database, DatabaseHelper.TABLE_EMERGENCY_CONTACTS);
+    }
+
+    private static ContentValues contactValues(int i) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_NAME, "Contact " + i);
+        values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, "98450" + String.format(Locale.US, "%05d", i));
+        values.put(DatabaseHelper.COLUMN_IS_EDITABLE, 1);
+        return values;
+    }
+}
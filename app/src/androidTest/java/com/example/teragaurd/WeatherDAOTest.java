@@ -0,0 +1,114 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a forecast saved by WeatherDAO comes back with every
+ * ForecastSeries column, and that upgrading from version 5 rebuilds
+ * forecast_points. Uses a separate database file
+ */
+@RunWith(AndroidJUnit4.class)
+public class WeatherDAOTest {
+
+    private static final String TEST_DATABASE = "weather_dao_test.db";
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private WeatherDAO weatherDAO;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @After
+    public void tearDown() {
+        if (helper != null) helper.close();
+        context.deleteDatabase(TEST_DATABASE);
+    }
+
+    @Test
+    public void savedForecast_roundTripsEveryColumn() {
+        openDao();
+        long now = System.currentTimeMillis();
+        long firstDt = TimeUnit.MILLISECONDS.toSeconds(now) + TimeUnit.HOURS.toSeconds(1);
+        ForecastSeries.Builder builder = new ForecastSeries.Builder(8);
+        for (int i = 0; i < 8; i++) {
+            builder.add(firstDt + i * TimeUnit.HOURS.toSeconds(3), 20.5f + i, 21.25f + i,
+                    19.0f + i, 23.75f + i, 40 + i * 5);
+        }
+        ForecastSeries original = builder.build();
+
+        weatherDAO.saveSnapshot(new WeatherSnapshot.Builder(LAT, LON)
+                .temperature(24.0, now, WeatherSnapshot.Freshness.FRESH)
+                .forecast(original, now, WeatherSnapshot.Freshness.FRESH)
+                .build());
+        WeatherSnapshot stored = weatherDAO.getLatestSnapshot(LAT, LON);
+
+        assertEquals(WeatherSnapshot.Freshness.STALE, stored.getForecastFreshness());
+        assertEquals(now, stored.getForecastTime());
+        ForecastSeries persisted = stored.getForecast();
+        assertEquals(original.size(), persisted.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.getDt(i), persisted.getDt(i));
+            assertEquals(original.getTemp(i), persisted.getTemp(i), 0.0f);
+            assertEquals(original.getFeelsLike(i), persisted.getFeelsLike(i), 0.0f);
+            assertEquals(original.getTempMin(i), persisted.getTempMin(i), 0.0f);
+            assertEquals(original.getTempMax(i), persisted.getTempMax(i), 0.0f);
+            assertEquals(original.getHumidity(i), persisted.getHumidity(i));
+        }
+    }
+
+    @Test
+    public void upgradeFromVersion5_rebuildsForecastPoints() {
+        SQLiteDatabase old = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(TEST_DATABASE), null);
+        old.execSQL("CREATE TABLE " + DatabaseHelper.TABLE_FORECAST_POINTS + " (" +
+                DatabaseHelper.COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                DatabaseHelper.COLUMN_CELL + " TEXT NOT NULL, " +
+                DatabaseHelper.COLUMN_FORECAST_TIME + " INTEGER NOT NULL, " +
+                DatabaseHelper.COLUMN_TEMPERATURE + " REAL NOT NULL, " +
+                DatabaseHelper.COLUMN_RECORDED_AT + " INTEGER NOT NULL);");
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_CELL, LocationCell.key(LAT, LON));
+        values.put(DatabaseHelper.COLUMN_FORECAST_TIME,
+                TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + TimeUnit.HOURS.toSeconds(1));
+        values.put(DatabaseHelper.COLUMN_TEMPERATURE, 22.0);
+        values.put(DatabaseHelper.COLUMN_RECORDED_AT, System.currentTimeMillis());
+        old.insert(DatabaseHelper.TABLE_FORECAST_POINTS, null, values);
+        old.setVersion(5);
+        old.close();
+
+        openDao();
+        // The temperature-only point cannot be completed, so it is gone
+        try (Cursor cursor = helper.getReadableDatabase().query(DatabaseHelper.TABLE_FORECAST_POINTS,
+                null, null, null, null, null, null)) {
+            assertEquals(0, cursor.getCount());
+            assertTrue(cursor.getColumnIndex(DatabaseHelper.COLUMN_FEELS_LIKE) >= 0);
+            assertTrue(cursor.getColumnIndex(DatabaseHelper.COLUMN_HUMIDITY) >= 0);
+        }
+    }
+
+    private void openDao() {
+        helper = new DatabaseHelper(context, TEST_DATABASE);
+        weatherDAO = new WeatherDAO(helper);
+        weatherDAO.open();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.teragaurd;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * App-wide executors so disk and network work never runs on the main thread
+ */
+public class AppExecutors {
+
+    // Blocking network calls share one connection pool, so a few threads are enough
+    private static final int NETWORK_THREADS = 4;
+
+    // WAL lets a few connections read alongside the writer; more threads would queue for a connection
+    private static final int DISK_READ_THREADS = 3;
+
+    // Singleton instance
+    private static AppExecutors instance;
+
+    private final ExecutorService diskIO;
+    private final ExecutorService diskReads;
+    private final ExecutorService networkIO;
+    private final Executor mainThread;
+
+    /**
+     * Get singleton instance of AppExecutors
+     * @return AppExecutors instance
+     */
+    public static synchronized AppExecutors getInstance() {
+        if (instance == null) {
+            instance = new AppExecutors();
+        }
+        return instance;
+    }
+
+    private AppExecutors() {
+        diskIO = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "teragaurd-disk-io");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        AtomicInteger diskReadThreadCount = new AtomicInteger();
+        diskReads = Executors.newFixedThreadPool(DISK_READ_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "teragaurd-disk-read-" + diskReadThreadCount.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        AtomicInteger networkThreadCount = new AtomicInteger();
+        networkIO = Executors.newFixedThreadPool(NETWORK_THREADS, runnable ->
+                new Thread(runnable, "teragaurd-net-" + networkThreadCount.incrementAndGet()));
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    /**
+     * Single background thread for database and file access
+     * All database writes go through here, so SQLite's one writer never queues
+     */
+    public ExecutorService diskIO() {
+        return diskIO;
+    }
+
+    /**
+     * Small pool for read-only database queries, which run in parallel with each other and with diskIO()
+     */
+    public ExecutorService diskReads() {
+        return diskReads;
+    }
+
+    /**
+     * Bounded pool for blocking network calls such as watchlist batch refreshes
+     */
+    public ExecutorService networkIO() {
+        return networkIO;
+    }
+
+    /**
+     * Executor that runs tasks on the main (UI) thread
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+}
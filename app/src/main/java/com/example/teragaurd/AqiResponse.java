@@ -4,6 +4,10 @@ import com.google.gson.annotations.SerializedName;
 
 import java.util.List;
 
+/**
+ * Air pollution response; decoded by AqiResponseAdapter, the
+ * SerializedName annotations only document the JSON field names
+ */
 public class AqiResponse {
     @SerializedName("list")
     private List<AqiData> list;
@@ -12,6 +16,10 @@ public class AqiResponse {
         return list;
     }
 
+    void setList(List<AqiData> list) {
+        this.list = list;
+    }
+
     public static class AqiData {
         @SerializedName("main")
         private MainAqi main;
@@ -19,6 +27,10 @@ public class AqiResponse {
         public MainAqi getMain() {
             return main;
         }
+
+        void setMain(MainAqi main) {
+            this.main = main;
+        }
     }
 
     public static class MainAqi {
@@ -28,5 +40,9 @@ public class AqiResponse {
         public int getAqi() {
             return aqi;
         }
+
+        void setAqi(int aqi) {
+            this.aqi = aqi;
+        }
     }
 }
@@ -0,0 +1,100 @@
+package com.example.teragaurd;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written Gson adapter for AqiResponse
+ * Reads list[].main.aqi and skips the pollutant components and timestamps
+ */
+public class AqiResponseAdapter extends TypeAdapter<AqiResponse> {
+
+    @Override
+    public AqiResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        AqiResponse response = new AqiResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("list".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                response.setList(readList(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+
+    private static List<AqiResponse.AqiData> readList(JsonReader in) throws IOException {
+        // The current air pollution endpoint returns a single entry
+        List<AqiResponse.AqiData> list = new ArrayList<>(1);
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+            AqiResponse.AqiData data = new AqiResponse.AqiData();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("main".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                    data.setMain(readMain(in));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            list.add(data);
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static AqiResponse.MainAqi readMain(JsonReader in) throws IOException {
+        AqiResponse.MainAqi main = new AqiResponse.MainAqi();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("aqi".equals(in.nextName()) && in.peek() == JsonToken.NUMBER) {
+                main.setAqi(in.nextInt());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return main;
+    }
+
+    @Override
+    public void write(JsonWriter out, AqiResponse response) throws IOException {
+        if (response == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (response.getList() != null) {
+            out.name("list").beginArray();
+            for (AqiResponse.AqiData data : response.getList()) {
+                out.beginObject();
+                if (data.getMain() != null) {
+                    out.name("main").beginObject();
+                    out.name("aqi").value(data.getMain().getAqi());
+                    out.endObject();
+                }
+                out.endObject();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+}
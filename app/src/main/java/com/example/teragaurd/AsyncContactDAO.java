@@ -0,0 +1,180 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous front for ContactDAO, so screens never touch the database on the main thread
+ * Writes run one at a time on AppExecutors.diskIO(); queries run on the
+ * diskReads() pool and, thanks to WAL, do not wait for a write in progress.
+ * Every method returns a Future and, if a callback is given, also delivers
+ * the result on the main thread. If a task throws, the Future fails and the
+ * callback still runs, with the method's failure value (-1, 0 or null)
+ */
+public class AsyncContactDAO {
+
+    private static final String TAG = "AsyncContactDAO";
+
+    /**
+     * Receives a result on the main thread
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private final AppExecutors executors;
+
+    // Confined to the diskIO() thread: it owns the compiled write statements
+    private final ContactDAO writer;
+
+    // Only its query methods are used; SQLiteDatabase handles concurrent readers.
+    // It compiles no statements, so close() leaves its handle to in-flight reads
+    private final ContactDAO reader;
+
+    private boolean opened = false;
+
+    public AsyncContactDAO(Context context) {
+        this(DatabaseHelper.getInstance(context));
+    }
+
+    /**
+     * Use a specific database helper, for tests
+     */
+    AsyncContactDAO(DatabaseHelper dbHelper) {
+        executors = AppExecutors.getInstance();
+        writer = new ContactDAO(dbHelper);
+        reader = new ContactDAO(dbHelper);
+    }
+
+    /**
+     * Write the presets if the table is empty
+     * Runs on the writer so the check and the insert cannot interleave with another write
+     * @param presets Contacts to seed an empty table with
+     * @param callback Receives the number of presets written, or 0 if error, on the main thread, may be null
+     * @return Future for the number of presets written
+     */
+    public Future<Integer> insertPresetsIfEmpty(List<EmergencyContact> presets, Callback<Integer> callback) {
+        return submit(executors.diskIO(), () -> {
+            ContactDAO dao = writer();
+            return dao.hasContacts() ? 0 : dao.insertAll(presets);
+        }, 0, callback);
+    }
+
+    /**
+     * Get every saved contact
+     * @param callback Receives the contacts, or null if error, on the main thread, may be null
+     * @return Future for the contacts
+     */
+    public Future<List<EmergencyContact>> getAllContacts(Callback<List<EmergencyContact>> callback) {
+        return submit(executors.diskReads(), () -> reader().getAllContacts(), null, callback);
+    }
+
+    /**
+     * Find a saved contact with the same number, see ContactDAO.findByNumber()
+     * @param phoneNumber Number in any format
+     * @param callback Receives the match, or null if none or error, on the main thread, may be null
+     * @return Future for the match
+     */
+    public Future<EmergencyContact> findByNumber(String phoneNumber, Callback<EmergencyContact> callback) {
+        return submit(executors.diskReads(), () -> reader().findByNumber(phoneNumber), null, callback);
+    }
+
+    /**
+     * Insert a new emergency contact
+     * @param contact The contact to insert; its ID is set before the callback runs
+     * @param callback Receives the row ID, or -1 if error, on the main thread, may be null
+     * @return Future for the row ID
+     */
+    public Future<Long> insertContact(EmergencyContact contact, Callback<Long> callback) {
+        return submit(executors.diskIO(), () -> writer().insertContact(contact), -1L, callback);
+    }
+
+    /**
+     * Insert a contact unless its number is already saved, see ContactDAO.insertIfNew()
+     * Runs on the writer, so two imports of the same number cannot both pass the check
+     * @param contact The contact to insert; its ID is set before the callback runs
+     * @param callback Receives the row ID, ContactDAO.ALREADY_SAVED, or -1 if error, on the main thread, may be null
+     * @return Future for the row ID
+     */
+    public Future<Long> insertIfNew(EmergencyContact contact, Callback<Long> callback) {
+        return submit(executors.diskIO(), () -> writer().insertIfNew(contact), -1L, callback);
+    }
+
+    /**
+     * Delete a contact
+     * @param contact The contact to delete
+     * @param callback Receives the number of rows affected, or 0 if error, on the main thread, may be null
+     * @return Future for the number of rows affected
+     */
+    public Future<Integer> deleteContact(EmergencyContact contact, Callback<Integer> callback) {
+        return submit(executors.diskIO(), () -> writer().deleteContact(contact), 0, callback);
+    }
+
+    /**
+     * Release the writer's compiled statements once queued writes are done
+     * The shared connection stays open, and reads still running on diskReads() keep working
+     */
+    public void close() {
+        executors.diskIO().execute(() -> {
+            synchronized (this) {
+                if (!opened) return;
+                writer.close();
+                opened = false;
+            }
+        });
+    }
+
+    // ==================== INTERNALS ====================
+
+    private ContactDAO writer() {
+        open();
+        return writer;
+    }
+
+    private ContactDAO reader() {
+        open();
+        return reader;
+    }
+
+    /**
+     * Open both DAOs on first use, off the main thread since it may run a migration
+     * Synchronized so every worker thread sees the opened handles; reopening
+     * after close() hands the reader the same shared connection again
+     */
+    private synchronized void open() {
+        if (opened) return;
+        writer.open();
+        reader.open();
+        opened = true;
+    }
+
+    /**
+     * Run a task and post its result to the callback
+     * @param failed Posted instead of a result if the task throws, so the screen can report the failure
+     */
+    private <T> Future<T> submit(ExecutorService executor, Callable<T> task, T failed, Callback<T> callback) {
+        return executor.submit(() -> {
+            T result;
+            try {
+                result = task.call();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Contact database task failed: " + e.getMessage());
+                deliver(callback, failed);
+                throw e;
+            }
+            deliver(callback, result);
+            return result;
+        });
+    }
+
+    private <T> void deliver(Callback<T> callback, T result) {
+        if (callback != null) {
+            executors.mainThread().execute(() -> callback.onResult(result));
+        }
+    }
+}
@@ -23,6 +23,29 @@ import java.util.Locale;
 public class CallLogHelper {
 
     private static final String TAG = "CallLogHelper";
+
+    private static final String[] PROJECTION = {
+            CallLog.Calls.NUMBER,
+            CallLog.Calls.CACHED_NAME,
+            CallLog.Calls.TYPE,
+            CallLog.Calls.DATE,
+            CallLog.Calls.DURATION
+    };
+
+    // Column indices are looked up once per cursor, not once per row
+    static final RowMapper<CallLogEntry> CALL_LOG_MAPPER = cursor -> {
+        int numberIndex = cursor.getColumnIndexOrThrow(CallLog.Calls.NUMBER);
+        int nameIndex = cursor.getColumnIndexOrThrow(CallLog.Calls.CACHED_NAME);
+        int typeIndex = cursor.getColumnIndexOrThrow(CallLog.Calls.TYPE);
+        int dateIndex = cursor.getColumnIndexOrThrow(CallLog.Calls.DATE);
+        int durationIndex = cursor.getColumnIndexOrThrow(CallLog.Calls.DURATION);
+        return row -> new CallLogEntry(
+                row.getString(numberIndex),
+                row.getString(nameIndex),
+                row.getInt(typeIndex),
+                row.getLong(dateIndex),
+                row.getLong(durationIndex));
+    };
     
     private Context context;
     private ContentResolver contentResolver;
@@ -101,50 +124,13 @@ public class CallLogHelper {
      * @return List of CallLogEntry objects
      */
     public List<CallLogEntry> getRecentCalls(int limit) {
-        List<CallLogEntry> callLogs = new ArrayList<>();
-        
         if (!hasCallLogPermission()) {
             Log.w(TAG, "READ_CALL_LOG permission not granted");
-            return callLogs;
+            return new ArrayList<>();
         }
 
-        String[] projection = {
-                CallLog.Calls.NUMBER,
-                CallLog.Calls.CACHED_NAME,
-                CallLog.Calls.TYPE,
-                CallLog.Calls.DATE,
-                CallLog.Calls.DURATION
-        };
-
         String sortOrder = CallLog.Calls.DATE + " DESC LIMIT " + limit;
-
-        try {
-            Cursor cursor = contentResolver.query(
-                    CallLog.Calls.CONTENT_URI,
-                    projection,
-                    null,
-                    null,
-                    sortOrder
-            );
-
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    String number = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.NUMBER));
-                    String name = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.CACHED_NAME));
-                    int type = cursor.getInt(cursor.getColumnIndexOrThrow(CallLog.Calls.TYPE));
-                    long date = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DATE));
-                    long duration = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DURATION));
-
-                    callLogs.add(new CallLogEntry(number, name, type, date, duration));
-                } while (cursor.moveToNext());
-                
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading call log: " + e.getMessage());
-        }
-
-        return callLogs;
+        return queryCalls(null, null, sortOrder);
     }
 
     /**
@@ -154,54 +140,17 @@ public class CallLogHelper {
      * @return List of CallLogEntry objects
      */
     public List<CallLogEntry> getCallsToNumber(String phoneNumber, int limit) {
-        List<CallLogEntry> callLogs = new ArrayList<>();
-        
         if (!hasCallLogPermission()) {
             Log.w(TAG, "READ_CALL_LOG permission not granted");
-            return callLogs;
+            return new ArrayList<>();
         }
 
-        String[] projection = {
-                CallLog.Calls.NUMBER,
-                CallLog.Calls.CACHED_NAME,
-                CallLog.Calls.TYPE,
-                CallLog.Calls.DATE,
-                CallLog.Calls.DURATION
-        };
-
         // Clean phone number for comparison
-        String cleanNumber = phoneNumber.replaceAll("[^0-9]", "");
+        String cleanNumber = PhoneNumbers.normalize(phoneNumber);
         String selection = "REPLACE(REPLACE(" + CallLog.Calls.NUMBER + ", '-', ''), ' ', '') LIKE ?";
         String[] selectionArgs = {"%" + cleanNumber};
         String sortOrder = CallLog.Calls.DATE + " DESC LIMIT " + limit;
-
-        try {
-            Cursor cursor = contentResolver.query(
-                    CallLog.Calls.CONTENT_URI,
-                    projection,
-                    selection,
-                    selectionArgs,
-                    sortOrder
-            );
-
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    String number = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.NUMBER));
-                    String name = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.CACHED_NAME));
-                    int type = cursor.getInt(cursor.getColumnIndexOrThrow(CallLog.Calls.TYPE));
-                    long date = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DATE));
-                    long duration = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DURATION));
-
-                    callLogs.add(new CallLogEntry(number, name, type, date, duration));
-                } while (cursor.moveToNext());
-                
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading call log: " + e.getMessage());
-        }
-
-        return callLogs;
+        return queryCalls(selection, selectionArgs, sortOrder);
     }
 
     /**
@@ -231,51 +180,14 @@ public class CallLogHelper {
      * @return List of outgoing CallLogEntry objects
      */
     public List<CallLogEntry> getOutgoingCalls(int limit) {
-        List<CallLogEntry> callLogs = new ArrayList<>();
-        
         if (!hasCallLogPermission()) {
-            return callLogs;
+            return new ArrayList<>();
         }
 
-        String[] projection = {
-                CallLog.Calls.NUMBER,
-                CallLog.Calls.CACHED_NAME,
-                CallLog.Calls.TYPE,
-                CallLog.Calls.DATE,
-                CallLog.Calls.DURATION
-        };
-
         String selection = CallLog.Calls.TYPE + " = ?";
         String[] selectionArgs = {String.valueOf(CallLog.Calls.OUTGOING_TYPE)};
         String sortOrder = CallLog.Calls.DATE + " DESC LIMIT " + limit;
-
-        try {
-            Cursor cursor = contentResolver.query(
-                    CallLog.Calls.CONTENT_URI,
-                    projection,
-                    selection,
-                    selectionArgs,
-                    sortOrder
-            );
-
-            if (cursor != null && cursor.moveToFirst()) {
-                do {
-                    String number = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.NUMBER));
-                    String name = cursor.getString(cursor.getColumnIndexOrThrow(CallLog.Calls.CACHED_NAME));
-                    int type = cursor.getInt(cursor.getColumnIndexOrThrow(CallLog.Calls.TYPE));
-                    long date = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DATE));
-                    long duration = cursor.getLong(cursor.getColumnIndexOrThrow(CallLog.Calls.DURATION));
-
-                    callLogs.add(new CallLogEntry(number, name, type, date, duration));
-                } while (cursor.moveToNext());
-                
-                cursor.close();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error reading call log: " + e.getMessage());
-        }
-
-        return callLogs;
+        return queryCalls(selection, selectionArgs, sortOrder);
     }
 
     /**
@@ -310,4 +222,24 @@ public class CallLogHelper {
         
         return false;
     }
+
+    /**
+     * Query the call log and map every row to a CallLogEntry
+     * @return Matching entries, or an empty list if the query fails
+     */
+    private List<CallLogEntry> queryCalls(String selection, String[] selectionArgs, String sortOrder) {
+        try {
+            Cursor cursor = contentResolver.query(
+                    CallLog.Calls.CONTENT_URI,
+                    PROJECTION,
+                    selection,
+                    selectionArgs,
+                    sortOrder
+            );
+            return CursorRows.toList(cursor, CALL_LOG_MAPPER);
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading call log: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
 }
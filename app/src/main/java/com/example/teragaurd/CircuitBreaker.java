@@ -0,0 +1,115 @@
+package com.example.teragaurd;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-endpoint circuit breaker
+ * After a run of consecutive failures the circuit opens and calls fail fast;
+ * each time it re-opens the open period doubles (with jitter) up to a cap.
+ * Once the period passes a single probe call is let through (half-open)
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int trips = 0;
+    private long openUntil = 0;
+
+    /**
+     * @param failureThreshold Consecutive failures that open the circuit
+     * @param baseOpenMillis Open period after the first trip
+     * @param maxOpenMillis Upper bound for the open period
+     */
+    public CircuitBreaker(int failureThreshold, long baseOpenMillis, long maxOpenMillis) {
+        this.failureThreshold = failureThreshold;
+        this.baseOpenMillis = baseOpenMillis;
+        this.maxOpenMillis = maxOpenMillis;
+    }
+
+    /**
+     * Check whether a call may go out now
+     * @param now Current time in milliseconds
+     * @return true if the call should be attempted
+     */
+    public synchronized boolean allowRequest(long now) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now >= openUntil) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            case HALF_OPEN:
+            default:
+                // Only the single probe call is allowed while half-open
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trips = 0;
+    }
+
+    /**
+     * Record a failed call
+     * @param now Current time in milliseconds
+     */
+    public synchronized void onFailure(long now) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            trips++;
+            state = State.OPEN;
+            openUntil = now + openPeriod();
+        }
+    }
+
+    /**
+     * Give back the half-open probe when it ended without an answer
+     * (canceled, interrupted or crashed); the next allowRequest() probes again
+     */
+    public synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openUntil = 0;
+        }
+    }
+
+    /**
+     * Let the next call through immediately, e.g. when connectivity returns
+     */
+    public synchronized void reset() {
+        if (state != State.CLOSED) {
+            // Expire the open period; the next allowRequest() becomes the probe
+            state = State.OPEN;
+            openUntil = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Exponential open period with "equal jitter": half fixed, half random
+     */
+    private long openPeriod() {
+        int shift = Math.min(trips - 1, 20);
+        long period = Math.min(maxOpenMillis, baseOpenMillis << shift);
+        long half = period / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+}
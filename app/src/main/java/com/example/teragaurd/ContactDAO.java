@@ -1,40 +1,100 @@
 package com.example.teragaurd;
 
-import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Data Access Object (DAO) for Emergency Contacts
- * Provides CRUD operations for emergency contacts in SQLite database
+ * Provides CRUD operations for emergency contacts in SQLite database.
+ * Insert, update and delete use SQLiteStatements compiled once per DAO and
+ * reused; the batch methods run them inside a single transaction.
+ * A DAO instance is not thread-safe
  */
 public class ContactDAO {
 
+    private static final String TAG = "ContactDAO";
+
+    private static final String SQL_INSERT =
+            "INSERT INTO " + DatabaseHelper.TABLE_EMERGENCY_CONTACTS + " (" +
+            DatabaseHelper.COLUMN_NAME + ", " +
+            DatabaseHelper.COLUMN_PHONE_NUMBER + ", " +
+            DatabaseHelper.COLUMN_IS_EDITABLE + ", " +
+            DatabaseHelper.COLUMN_NORMALIZED_NUMBER + ", " +
+            DatabaseHelper.COLUMN_REVERSED_NUMBER + ") VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPDATE =
+            "UPDATE " + DatabaseHelper.TABLE_EMERGENCY_CONTACTS + " SET " +
+            DatabaseHelper.COLUMN_NAME + " = ?, " +
+            DatabaseHelper.COLUMN_PHONE_NUMBER + " = ?, " +
+            DatabaseHelper.COLUMN_IS_EDITABLE + " = ?, " +
+            DatabaseHelper.COLUMN_NORMALIZED_NUMBER + " = ?, " +
+            DatabaseHelper.COLUMN_REVERSED_NUMBER + " = ? WHERE " +
+            DatabaseHelper.COLUMN_ID + " = ?";
+
+    private static final String SQL_DELETE =
+            "DELETE FROM " + DatabaseHelper.TABLE_EMERGENCY_CONTACTS + " WHERE " +
+            DatabaseHelper.COLUMN_ID + " = ?";
+
+    private static final String[] CONTACT_COLUMNS = {
+            DatabaseHelper.COLUMN_ID,
+            DatabaseHelper.COLUMN_NAME,
+            DatabaseHelper.COLUMN_PHONE_NUMBER,
+            DatabaseHelper.COLUMN_IS_EDITABLE
+    };
+
+    // Returned by insertIfNew() when the number is already saved; row IDs start at 1
+    public static final long ALREADY_SAVED = 0;
+
+    // Maps CONTACT_COLUMNS rows; package-private for the mapping benchmark
+    static final RowMapper<EmergencyContact> CONTACT_MAPPER = ContactRow::new;
+
     private SQLiteDatabase database;
     private DatabaseHelper dbHelper;
 
+    // Compiled on first use and reused; released by close()
+    private SQLiteStatement insertStatement;
+    private SQLiteStatement updateStatement;
+    private SQLiteStatement deleteStatement;
+
     public ContactDAO(Context context) {
-        dbHelper = DatabaseHelper.getInstance(context);
+        this(DatabaseHelper.getInstance(context));
+    }
+
+    /**
+     * Use a specific database helper, for tests
+     */
+    ContactDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
     }
 
     /**
      * Open database connection for writing
+     * The connection is shared by the whole process; opening again is cheap
      */
     public void open() {
         database = dbHelper.getWritableDatabase();
     }
 
     /**
-     * Close database connection
+     * Release this DAO's handle
+     * The shared connection stays open for other DAOs; closing it here would
+     * break every other user of the database
      */
     public void close() {
-        if (database != null && database.isOpen()) {
-            database.close();
-        }
+        releaseStatement(insertStatement);
+        releaseStatement(updateStatement);
+        releaseStatement(deleteStatement);
+        insertStatement = null;
+        updateStatement = null;
+        deleteStatement = null;
+        database = null;
     }
 
     /**
@@ -43,46 +103,124 @@ public class ContactDAO {
      * @return The row ID of the newly inserted contact, or -1 if error
      */
     public long insertContact(EmergencyContact contact) {
-        ContentValues values = new ContentValues();
-        values.put(DatabaseHelper.COLUMN_NAME, contact.getName());
-        values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, contact.getPhoneNumber());
-        values.put(DatabaseHelper.COLUMN_IS_EDITABLE, contact.isEditable() ? 1 : 0);
-
-        long id = database.insert(DatabaseHelper.TABLE_EMERGENCY_CONTACTS, null, values);
+        SQLiteStatement statement = insertStatement();
+        bindContact(statement, contact);
+
+        long id;
+        try {
+            id = statement.executeInsert();
+        } catch (SQLException e) {
+            Log.e(TAG, "Failed to insert contact: " + e.getMessage());
+            id = -1;
+        }
         contact.setId(id); // Set the generated ID back to the contact
         return id;
     }
 
+    /**
+     * Insert a contact unless one with the same number is already saved
+     * The lookup and the insert run in one transaction
+     * @param contact The contact to insert; its ID is set if it is inserted
+     * @return The row ID of the new contact, ALREADY_SAVED, or -1 if error
+     */
+    public long insertIfNew(EmergencyContact contact) {
+        database.beginTransaction();
+        try {
+            if (findByNumber(contact.getPhoneNumber()) != null) {
+                return ALREADY_SAVED;
+            }
+            long id = insertContact(contact);
+            if (id != -1) {
+                database.setTransactionSuccessful();
+            }
+            return id;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Insert several contacts in one transaction
+     * All rows are written or none are
+     * @param contacts Contacts to insert; their IDs are set on success
+     * @return Number of contacts inserted
+     */
+    public int insertAll(List<EmergencyContact> contacts) {
+        SQLiteStatement statement = insertStatement();
+        int inserted = 0;
+        database.beginTransaction();
+        try {
+            for (EmergencyContact contact : contacts) {
+                bindContact(statement, contact);
+                contact.setId(statement.executeInsert());
+                inserted++;
+            }
+            database.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, "Batch insert rolled back: " + e.getMessage());
+            for (EmergencyContact contact : contacts) {
+                contact.setId(-1);
+            }
+            inserted = 0;
+        } finally {
+            database.endTransaction();
+        }
+        return inserted;
+    }
+
+    /**
+     * Update saved contacts and insert new ones in one transaction
+     * A contact with an ID that no longer exists is inserted again
+     * @param contacts Contacts to write; IDs of inserted ones are set on success
+     * @return Number of contacts written
+     */
+    public int upsertAll(List<EmergencyContact> contacts) {
+        SQLiteStatement insert = insertStatement();
+        SQLiteStatement update = updateStatement();
+        long[] previousIds = new long[contacts.size()];
+        int written = 0;
+        database.beginTransaction();
+        try {
+            for (int i = 0; i < contacts.size(); i++) {
+                EmergencyContact contact = contacts.get(i);
+                previousIds[i] = contact.getId();
+                if (contact.getId() != -1) {
+                    bindContact(update, contact);
+                    update.bindLong(6, contact.getId());
+                    if (update.executeUpdateDelete() > 0) {
+                        written++;
+                        continue;
+                    }
+                }
+                bindContact(insert, contact);
+                contact.setId(insert.executeInsert());
+                written++;
+            }
+            database.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, "Batch upsert rolled back: " + e.getMessage());
+            for (int i = 0; i < contacts.size(); i++) {
+                contacts.get(i).setId(previousIds[i]);
+            }
+            written = 0;
+        } finally {
+            database.endTransaction();
+        }
+        return written;
+    }
+
     /**
      * Get all emergency contacts from database
      * @return List of all emergency contacts
      */
     public List<EmergencyContact> getAllContacts() {
-        List<EmergencyContact> contacts = new ArrayList<>();
-
-        String[] columns = {
-                DatabaseHelper.COLUMN_ID,
-                DatabaseHelper.COLUMN_NAME,
-                DatabaseHelper.COLUMN_PHONE_NUMBER,
-                DatabaseHelper.COLUMN_IS_EDITABLE
-        };
-
         Cursor cursor = database.query(
                 DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
-                columns,
+                CONTACT_COLUMNS,
                 null, null, null, null,
                 DatabaseHelper.COLUMN_ID + " ASC"
         );
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                EmergencyContact contact = cursorToContact(cursor);
-                contacts.add(contact);
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return contacts;
+        return CursorRows.toList(cursor, CONTACT_MAPPER);
     }
 
     /**
@@ -90,35 +228,77 @@ public class ContactDAO {
      * @return List of editable contacts
      */
     public List<EmergencyContact> getEditableContacts() {
-        List<EmergencyContact> contacts = new ArrayList<>();
-
-        String[] columns = {
-                DatabaseHelper.COLUMN_ID,
-                DatabaseHelper.COLUMN_NAME,
-                DatabaseHelper.COLUMN_PHONE_NUMBER,
-                DatabaseHelper.COLUMN_IS_EDITABLE
-        };
-
         Cursor cursor = database.query(
                 DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
-                columns,
+                CONTACT_COLUMNS,
                 DatabaseHelper.COLUMN_IS_EDITABLE + " = ?",
                 new String[]{"1"},
                 null, null,
                 DatabaseHelper.COLUMN_ID + " ASC"
         );
+        return CursorRows.toList(cursor, CONTACT_MAPPER);
+    }
 
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                EmergencyContact contact = cursorToContact(cursor);
-                contacts.add(contact);
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
+    /**
+     * Get the page of contacts following a given ID, in ID order
+     * Seeks through the primary key, so the cost does not grow with the page's position
+     * @param afterId ID of the last contact of the previous page, or 0 for the first page
+     * @param limit Page size
+     * @return Up to limit contacts with larger IDs
+     */
+    public List<EmergencyContact> getContactsAfter(long afterId, int limit) {
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
+                CONTACT_COLUMNS,
+                DatabaseHelper.COLUMN_ID + " > ?",
+                new String[]{String.valueOf(afterId)},
+                null, null,
+                DatabaseHelper.COLUMN_ID + " ASC",
+                String.valueOf(limit)
+        );
+        return CursorRows.toList(cursor, CONTACT_MAPPER);
+    }
 
+    /**
+     * Get the page of contacts preceding a given ID, in ID order
+     * @param beforeId ID of the first contact of the next page
+     * @param limit Page size
+     * @return Up to limit contacts with smaller IDs, the closest ones
+     */
+    public List<EmergencyContact> getContactsBefore(long beforeId, int limit) {
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
+                CONTACT_COLUMNS,
+                DatabaseHelper.COLUMN_ID + " < ?",
+                new String[]{String.valueOf(beforeId)},
+                null, null,
+                DatabaseHelper.COLUMN_ID + " DESC",
+                String.valueOf(limit)
+        );
+        List<EmergencyContact> contacts = CursorRows.toList(cursor, CONTACT_MAPPER);
+        Collections.reverse(contacts);
         return contacts;
     }
 
+    /**
+     * Get the page of contacts starting at a list position, in ID order
+     * SQLite steps over every skipped row, so prefer the keyset methods above
+     * and use this only to jump to a position with no loaded neighbour
+     * @param offset Position of the first contact
+     * @param limit Page size
+     * @return Up to limit contacts
+     */
+    public List<EmergencyContact> getContactsAt(int offset, int limit) {
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
+                CONTACT_COLUMNS,
+                null, null, null, null,
+                DatabaseHelper.COLUMN_ID + " ASC",
+                offset + ", " + limit
+        );
+        return CursorRows.toList(cursor, CONTACT_MAPPER);
+    }
+
     /**
      * Get a single contact by ID
      * @param id The contact ID
@@ -127,19 +307,50 @@ public class ContactDAO {
     public EmergencyContact getContactById(long id) {
         Cursor cursor = database.query(
                 DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
-                null,
+                CONTACT_COLUMNS,
                 DatabaseHelper.COLUMN_ID + " = ?",
                 new String[]{String.valueOf(id)},
                 null, null, null
         );
+        return CursorRows.first(cursor, CONTACT_MAPPER);
+    }
 
-        EmergencyContact contact = null;
-        if (cursor != null && cursor.moveToFirst()) {
-            contact = cursorToContact(cursor);
-            cursor.close();
+    /**
+     * Find a saved contact with the same number
+     * Numbers match when the digits of one end with the digits of the other, so
+     * a number saved without its country code still matches. Both directions
+     * are answered from the reversed-number index: saved numbers ending with the
+     * given one form a prefix range, and saved numbers the given one ends with
+     * are among its few reversed prefixes
+     * @param phoneNumber Number in any format
+     * @return The first matching contact, or null if none or the number has no digits
+     */
+    public EmergencyContact findByNumber(String phoneNumber) {
+        String reversed = PhoneNumbers.reversed(phoneNumber);
+        if (reversed.isEmpty()) return null;
+
+        // Saved numbers ending with this one, then saved numbers this one ends with
+        String[] args = new String[reversed.length() + 2];
+        args[0] = reversed;
+        args[1] = PhoneNumbers.prefixUpperBound(reversed);
+        StringBuilder inList = new StringBuilder();
+        for (int length = 1; length <= reversed.length(); length++) {
+            inList.append(length == 1 ? "?" : ", ?");
+            args[length + 1] = reversed.substring(0, length);
         }
 
-        return contact;
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
+                CONTACT_COLUMNS,
+                "(" + DatabaseHelper.COLUMN_REVERSED_NUMBER + " >= ? AND " +
+                        DatabaseHelper.COLUMN_REVERSED_NUMBER + " < ?) OR " +
+                        DatabaseHelper.COLUMN_REVERSED_NUMBER + " IN (" + inList + ")",
+                args,
+                null, null,
+                DatabaseHelper.COLUMN_ID + " ASC",
+                "1"
+        );
+        return CursorRows.first(cursor, CONTACT_MAPPER);
     }
 
     /**
@@ -148,17 +359,10 @@ public class ContactDAO {
      * @return Number of rows affected
      */
     public int updateContact(EmergencyContact contact) {
-        ContentValues values = new ContentValues();
-        values.put(DatabaseHelper.COLUMN_NAME, contact.getName());
-        values.put(DatabaseHelper.COLUMN_PHONE_NUMBER, contact.getPhoneNumber());
-        values.put(DatabaseHelper.COLUMN_IS_EDITABLE, contact.isEditable() ? 1 : 0);
-
-        return database.update(
-                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
-                values,
-                DatabaseHelper.COLUMN_ID + " = ?",
-                new String[]{String.valueOf(contact.getId())}
-        );
+        SQLiteStatement statement = updateStatement();
+        bindContact(statement, contact);
+        statement.bindLong(6, contact.getId());
+        return statement.executeUpdateDelete();
     }
 
     /**
@@ -167,11 +371,9 @@ public class ContactDAO {
      * @return Number of rows affected
      */
     public int deleteContact(long id) {
-        return database.delete(
-                DatabaseHelper.TABLE_EMERGENCY_CONTACTS,
-                DatabaseHelper.COLUMN_ID + " = ?",
-                new String[]{String.valueOf(id)}
-        );
+        SQLiteStatement statement = deleteStatement();
+        statement.bindLong(1, id);
+        return statement.executeUpdateDelete();
     }
 
     /**
@@ -233,19 +435,84 @@ public class ContactDAO {
         return count;
     }
 
+    // ==================== COMPILED STATEMENTS ====================
+
+    private SQLiteStatement insertStatement() {
+        if (insertStatement == null) {
+            insertStatement = database.compileStatement(SQL_INSERT);
+        }
+        return insertStatement;
+    }
+
+    private SQLiteStatement updateStatement() {
+        if (updateStatement == null) {
+            updateStatement = database.compileStatement(SQL_UPDATE);
+        }
+        return updateStatement;
+    }
+
+    private SQLiteStatement deleteStatement() {
+        if (deleteStatement == null) {
+            deleteStatement = database.compileStatement(SQL_DELETE);
+        }
+        return deleteStatement;
+    }
+
+    /**
+     * Bind name, phone number, editable flag and the two lookup forms of the number to parameters 1-5
+     */
+    private static void bindContact(SQLiteStatement statement, EmergencyContact contact) {
+        statement.bindString(1, contact.getName());
+        statement.bindString(2, contact.getPhoneNumber());
+        statement.bindLong(3, contact.isEditable() ? 1 : 0);
+        statement.bindString(4, PhoneNumbers.normalize(contact.getPhoneNumber()));
+        statement.bindString(5, PhoneNumbers.reversed(contact.getPhoneNumber()));
+    }
+
+    private static void releaseStatement(SQLiteStatement statement) {
+        if (statement != null) {
+            statement.close();
+        }
+    }
+
     /**
-     * Convert cursor row to EmergencyContact object
-     * @param cursor Database cursor positioned at a row
-     * @return EmergencyContact object
+     * Reads contact rows with the column indices looked up once per cursor
+     * Fills a reused EmergencyContact when iterating with CursorRows.iterateReusing()
      */
-    private EmergencyContact cursorToContact(Cursor cursor) {
-        long id = cursor.getLong(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID));
-        String name = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NAME));
-        String phoneNumber = cursor.getString(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_PHONE_NUMBER));
-        boolean isEditable = cursor.getInt(cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_IS_EDITABLE)) == 1;
+    private static final class ContactRow implements RowMapper.Row<EmergencyContact> {
+
+        private final int idIndex;
+        private final int nameIndex;
+        private final int phoneNumberIndex;
+        private final int isEditableIndex;
+
+        ContactRow(Cursor cursor) {
+            idIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID);
+            nameIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NAME);
+            phoneNumberIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_PHONE_NUMBER);
+            isEditableIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_IS_EDITABLE);
+        }
 
-        EmergencyContact contact = new EmergencyContact(name, phoneNumber, isEditable);
-        contact.setId(id);
-        return contact;
+        @Override
+        public EmergencyContact read(Cursor cursor) {
+            EmergencyContact contact = new EmergencyContact(
+                    cursor.getString(nameIndex),
+                    cursor.getString(phoneNumberIndex),
+                    cursor.getInt(isEditableIndex) == 1);
+            contact.setId(cursor.getLong(idIndex));
+            return contact;
+        }
+
+        @Override
+        public EmergencyContact read(Cursor cursor, EmergencyContact reuse) {
+            if (reuse == null) {
+                return read(cursor);
+            }
+            reuse.setId(cursor.getLong(idIndex));
+            reuse.setName(cursor.getString(nameIndex));
+            reuse.setPhoneNumber(cursor.getString(phoneNumberIndex));
+            reuse.setEditable(cursor.getInt(isEditableIndex) == 1);
+            return reuse;
+        }
     }
 }
@@ -0,0 +1,268 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Windowed, position-indexed view of the emergency contacts for a RecyclerView
+ * Only the page around the scroll position and its neighbours are held in
+ * memory: pages load on a background thread as positions are bound, the next
+ * page is fetched before the scroll reaches it, and pages furthest from the
+ * scroll position are evicted. Pages are fetched by ID from a loaded neighbour
+ * (keyset paging); an OFFSET query is only used to jump to a position with no
+ * loaded neighbour. All methods run on the main thread
+ */
+public class ContactPagingSource {
+
+    private static final int PAGE_SIZE = 50;
+
+    // Current page plus two either side: enough to fling without seeing placeholders
+    private static final int MAX_PAGES = 5;
+
+    // Start loading the neighbouring page this many rows before reaching it
+    private static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
+    /**
+     * Receives changes on the main thread
+     */
+    public interface Listener {
+        /**
+         * The row count changed; every position may now show a different contact
+         */
+        void onCountChanged(int count);
+
+        void onPageLoaded(int positionStart, int itemCount);
+    }
+
+    /**
+     * Rows of one page and the refresh they were loaded in
+     */
+    private static final class Page {
+        final int generation;
+        final List<EmergencyContact> rows;
+
+        Page(int generation, List<EmergencyContact> rows) {
+            this.generation = generation;
+            this.rows = rows;
+        }
+
+        long firstId() {
+            return rows.get(0).getId();
+        }
+
+        long lastId() {
+            return rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    private final ContactDAO contactDAO;
+    private final Executor background;
+    private final Executor mainThread;
+    private final int pageSize;
+    private final int maxPages;
+    private final Listener listener;
+
+    private final Map<Integer, Page> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private int count = 0;
+    private int currentPage = 0;
+    private int generation = 0;
+    private boolean opened = false;
+
+    // How pages were fetched, for tests
+    private int keysetLoads = 0;
+    private int offsetLoads = 0;
+
+    /**
+     * Create a paging source reading the app database
+     * Call refresh() to load the row count
+     * @param context Context
+     * @param listener Listener to receive changes on the main thread
+     */
+    public ContactPagingSource(Context context, Listener listener) {
+        this(new ContactDAO(context),
+                AppExecutors.getInstance().diskReads(),
+                AppExecutors.getInstance().mainThread(),
+                PAGE_SIZE, MAX_PAGES, listener);
+    }
+
+    /**
+     * Use a specific DAO, executors and window, for tests
+     */
+    ContactPagingSource(ContactDAO contactDAO, Executor background, Executor mainThread,
+                        int pageSize, int maxPages, Listener listener) {
+        this.contactDAO = contactDAO;
+        this.background = background;
+        this.mainThread = mainThread;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.listener = listener;
+    }
+
+    /**
+     * Reload the row count after contacts were added or removed
+     * Loaded pages keep being shown until they are reloaded, so the list does not flash
+     */
+    public void refresh() {
+        int refreshGeneration = ++generation;
+        loading.clear();
+        background.execute(() -> {
+            int total = dao().getContactsCount();
+            mainThread.execute(() -> {
+                if (refreshGeneration != generation) return;
+                count = total;
+                listener.onCountChanged(total);
+                ensureLoaded(currentPage);
+            });
+        });
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Get the contact at a position, loading its page if needed
+     * @param position Position in ID order
+     * @return The contact, or null while its page is loading
+     */
+    public EmergencyContact get(int position) {
+        int page = position / pageSize;
+        int offset = position % pageSize;
+        currentPage = page;
+
+        ensureLoaded(page);
+        Page loaded = pages.get(page);
+        if (loaded == null || offset >= loaded.rows.size()) {
+            return null;
+        }
+
+        // Fetch ahead in the direction of the scroll once this page's IDs are known
+        if (loaded.generation == generation) {
+            if (offset >= pageSize - PREFETCH_DISTANCE) {
+                ensureLoaded(page + 1);
+            } else if (offset < PREFETCH_DISTANCE) {
+                ensureLoaded(page - 1);
+            }
+        }
+        return loaded.rows.get(offset);
+    }
+
+    /**
+     * Number of contacts currently held in memory
+     */
+    int getLoadedItemCount() {
+        int items = 0;
+        for (Page page : pages.values()) {
+            items += page.rows.size();
+        }
+        return items;
+    }
+
+    int getKeysetLoadCount() {
+        return keysetLoads;
+    }
+
+    int getOffsetLoadCount() {
+        return offsetLoads;
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * Start loading a page unless it is loaded, loading or out of range
+     * Keys are taken from a neighbour loaded in the current generation;
+     * neighbours from before a refresh may have shifted
+     */
+    private void ensureLoaded(int page) {
+        if (page < 0 || page * pageSize >= count) return;
+        Page existing = pages.get(page);
+        if ((existing != null && existing.generation == generation) || loading.contains(page)) return;
+
+        Page previous = freshPage(page - 1);
+        Page next = freshPage(page + 1);
+        final long afterId;
+        final long beforeId;
+        if (page == 0) {
+            afterId = 0;
+            beforeId = -1;
+        } else if (previous != null && previous.rows.size() == pageSize) {
+            afterId = previous.lastId();
+            beforeId = -1;
+        } else if (next != null && !next.rows.isEmpty()) {
+            afterId = -1;
+            beforeId = next.firstId();
+        } else {
+            afterId = -1;
+            beforeId = -1;
+        }
+
+        if (afterId >= 0 || beforeId >= 0) {
+            keysetLoads++;
+        } else {
+            offsetLoads++;
+        }
+
+        loading.add(page);
+        int loadGeneration = generation;
+        background.execute(() -> {
+            List<EmergencyContact> rows;
+            if (afterId >= 0) {
+                rows = dao().getContactsAfter(afterId, pageSize);
+            } else if (beforeId >= 0) {
+                rows = dao().getContactsBefore(beforeId, pageSize);
+            } else {
+                rows = dao().getContactsAt(page * pageSize, pageSize);
+            }
+            mainThread.execute(() -> onPageLoaded(page, loadGeneration, rows));
+        });
+    }
+
+    private void onPageLoaded(int page, int loadGeneration, List<EmergencyContact> rows) {
+        if (loadGeneration != generation) return;
+        loading.remove(page);
+        pages.put(page, new Page(loadGeneration, rows));
+        evictDistantPages();
+        listener.onPageLoaded(page * pageSize, rows.size());
+
+        // The page the user is on is ready; fetch the next one by its last ID
+        if (page == currentPage) {
+            ensureLoaded(page + 1);
+        }
+    }
+
+    private Page freshPage(int page) {
+        Page candidate = pages.get(page);
+        return candidate != null && candidate.generation == generation ? candidate : null;
+    }
+
+    private void evictDistantPages() {
+        while (pages.size() > maxPages) {
+            int furthest = currentPage;
+            for (int page : pages.keySet()) {
+                if (Math.abs(page - currentPage) > Math.abs(furthest - currentPage)) {
+                    furthest = page;
+                }
+            }
+            pages.remove(furthest);
+        }
+    }
+
+    /**
+     * Open the DAO on first use, off the main thread
+     * Synchronized so every background thread sees the opened handle
+     */
+    private synchronized ContactDAO dao() {
+        if (!opened) {
+            contactDAO.open();
+            opened = true;
+        }
+        return contactDAO;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.teragaurd;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Utility class for reading cursors through a RowMapper
+ * Every method takes ownership of the cursor and closes it once the rows are
+ * read. A null cursor, as ContentResolver.query() may return, reads as empty
+ */
+public class CursorRows {
+
+    private CursorRows() {
+    }
+
+    /**
+     * Read every row into a list
+     * @param cursor Cursor to read, may be null
+     * @param mapper Mapper for the rows
+     * @return Mapped rows in cursor order
+     */
+    public static <T> List<T> toList(Cursor cursor, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>(cursor != null ? cursor.getCount() : 0);
+        try (RowIterator<T> iterator = iterate(cursor, mapper)) {
+            while (iterator.hasNext()) {
+                rows.add(iterator.next());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Read the first row only
+     * @param cursor Cursor to read, may be null
+     * @param mapper Mapper for the row
+     * @return Mapped first row, or null if there are no rows
+     */
+    public static <T> T first(Cursor cursor, RowMapper<T> mapper) {
+        try (RowIterator<T> iterator = iterate(cursor, mapper)) {
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /**
+     * Map rows lazily as they are consumed; each row is a new object
+     * Close the iterator if it is not read to the end
+     * @param cursor Cursor to read, may be null
+     * @param mapper Mapper for the rows
+     * @return Iterator over the mapped rows
+     */
+    public static <T> RowIterator<T> iterate(Cursor cursor, RowMapper<T> mapper) {
+        return new RowIterator<>(cursor, mapper, false);
+    }
+
+    /**
+     * Map rows lazily into one reused object, for scans that do not keep rows
+     * Each next() may return the same instance refilled; copy anything kept
+     * @param cursor Cursor to read, may be null
+     * @param mapper Mapper for the rows
+     * @return Iterator over the mapped rows
+     */
+    public static <T> RowIterator<T> iterateReusing(Cursor cursor, RowMapper<T> mapper) {
+        return new RowIterator<>(cursor, mapper, true);
+    }
+
+    /**
+     * Lazy iterator over mapped cursor rows
+     * Closes the cursor when the last row has been read or close() is called
+     */
+    public static final class RowIterator<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+        private final Cursor cursor;
+        private final RowMapper.Row<T> row;
+        private final boolean reuse;
+
+        private T holder;
+        private boolean advanced = false;
+        private boolean hasRow = false;
+        private boolean closed = false;
+
+        private RowIterator(Cursor cursor, RowMapper<T> mapper, boolean reuse) {
+            this.cursor = cursor;
+            this.reuse = reuse;
+            if (cursor == null) {
+                row = null;
+                closed = true;
+                return;
+            }
+            try {
+                row = mapper.bind(cursor);
+            } catch (RuntimeException e) {
+                // A missing column must not leak the cursor
+                cursor.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!advanced) {
+                hasRow = !closed && cursor.moveToNext();
+                advanced = true;
+                if (!hasRow) {
+                    close();
+                }
+            }
+            return hasRow;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            holder = reuse ? row.read(cursor, holder) : row.read(cursor);
+            return holder;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                cursor.close();
+            }
+        }
+    }
+}
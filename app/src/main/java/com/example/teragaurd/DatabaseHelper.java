@@ -1,21 +1,36 @@
 package com.example.teragaurd;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
 /**
  * SQLite Database Helper class for teraGaurd app
- * Manages database creation and version management
+ * Manages database creation and version management. The database is opened
+ * once per process in write-ahead logging mode and never closed, so every
+ * DAO shares one connection pool and readers do not wait for the writer
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     // Database Info
     private static final String DATABASE_NAME = "teragaurd.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 6;
+
+    // Page cache for the primary (write) connection in KiB; SQLite's default is ~2 MB
+    private static final int CACHE_SIZE_KIB = 4096;
+
+    // Compiled statements kept per connection (Android's default is 25, the maximum 100)
+    private static final int STATEMENT_CACHE_SIZE = 50;
 
     // Table Names
     public static final String TABLE_EMERGENCY_CONTACTS = "emergency_contacts";
+    public static final String TABLE_WEATHER_CONDITIONS = "weather_conditions";
+    public static final String TABLE_AQI_SAMPLES = "aqi_samples";
+    public static final String TABLE_FORECAST_POINTS = "forecast_points";
+    public static final String TABLE_SAVED_LOCATIONS = "saved_locations";
+    public static final String TABLE_GEOCODE_CACHE = "geocode_cache";
 
     // Emergency Contacts Table Columns
     public static final String COLUMN_ID = "_id";
@@ -23,6 +38,35 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_PHONE_NUMBER = "phone_number";
     public static final String COLUMN_IS_EDITABLE = "is_editable";
 
+    // Added to emergency_contacts in version 5; digits only, and the same digits reversed
+    public static final String COLUMN_NORMALIZED_NUMBER = "normalized_number";
+    public static final String COLUMN_REVERSED_NUMBER = "reversed_number";
+
+    // Weather History Columns (shared by the weather tables)
+    public static final String COLUMN_CELL = "cell";
+    public static final String COLUMN_LATITUDE = "latitude";
+    public static final String COLUMN_LONGITUDE = "longitude";
+    public static final String COLUMN_RECORDED_AT = "recorded_at";
+    public static final String COLUMN_TEMPERATURE = "temperature";
+    public static final String COLUMN_AQI = "aqi";
+    public static final String COLUMN_FORECAST_TIME = "forecast_time";
+
+    // Added to forecast_points in version 6, so stored points keep the whole ForecastSeries row
+    public static final String COLUMN_FEELS_LIKE = "feels_like";
+    public static final String COLUMN_TEMP_MIN = "temp_min";
+    public static final String COLUMN_TEMP_MAX = "temp_max";
+    public static final String COLUMN_HUMIDITY = "humidity";
+
+    // Added to weather_conditions in version 3; 0 for rows written by watchlist refreshes
+    public static final String COLUMN_IS_DEVICE_FIX = "is_device_fix";
+
+    // Saved Locations Table Columns (also uses COLUMN_ID, COLUMN_NAME, COLUMN_LATITUDE, COLUMN_LONGITUDE)
+    public static final String COLUMN_CREATED_AT = "created_at";
+
+    // Geocode Cache Table Columns (also uses COLUMN_CELL)
+    public static final String COLUMN_PLACE_NAME = "place_name";
+    public static final String COLUMN_LAST_USED_AT = "last_used_at";
+
     // Create Emergency Contacts Table SQL
     private static final String CREATE_TABLE_EMERGENCY_CONTACTS =
             "CREATE TABLE " + TABLE_EMERGENCY_CONTACTS + " (" +
@@ -31,6 +75,88 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             COLUMN_PHONE_NUMBER + " TEXT NOT NULL, " +
             COLUMN_IS_EDITABLE + " INTEGER DEFAULT 1);";
 
+    // Number columns and index for emergency_contacts (added in version 5)
+    private static final String[] CREATE_CONTACT_NUMBER_COLUMNS = {
+            "ALTER TABLE " + TABLE_EMERGENCY_CONTACTS + " ADD COLUMN " +
+                    COLUMN_NORMALIZED_NUMBER + " TEXT NOT NULL DEFAULT '';",
+            "ALTER TABLE " + TABLE_EMERGENCY_CONTACTS + " ADD COLUMN " +
+                    COLUMN_REVERSED_NUMBER + " TEXT NOT NULL DEFAULT '';",
+            // Serves exact and suffix matches alike, so normalized_number needs no index of its own
+            "CREATE INDEX idx_contacts_reversed_number ON " + TABLE_EMERGENCY_CONTACTS +
+                    " (" + COLUMN_REVERSED_NUMBER + ");"
+    };
+
+    // Create Weather History Tables SQL (added in version 2)
+    private static final String CREATE_TABLE_WEATHER_CONDITIONS =
+            "CREATE TABLE " + TABLE_WEATHER_CONDITIONS + " (" +
+            COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            COLUMN_CELL + " TEXT NOT NULL, " +
+            COLUMN_LATITUDE + " REAL NOT NULL, " +
+            COLUMN_LONGITUDE + " REAL NOT NULL, " +
+            COLUMN_TEMPERATURE + " REAL NOT NULL, " +
+            COLUMN_RECORDED_AT + " INTEGER NOT NULL);";
+
+    private static final String CREATE_TABLE_AQI_SAMPLES =
+            "CREATE TABLE " + TABLE_AQI_SAMPLES + " (" +
+            COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            COLUMN_CELL + " TEXT NOT NULL, " +
+            COLUMN_LATITUDE + " REAL NOT NULL, " +
+            COLUMN_LONGITUDE + " REAL NOT NULL, " +
+            COLUMN_AQI + " INTEGER NOT NULL, " +
+            COLUMN_RECORDED_AT + " INTEGER NOT NULL);";
+
+    private static final String CREATE_TABLE_FORECAST_POINTS =
+            "CREATE TABLE " + TABLE_FORECAST_POINTS + " (" +
+            COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            COLUMN_CELL + " TEXT NOT NULL, " +
+            COLUMN_FORECAST_TIME + " INTEGER NOT NULL, " +
+            COLUMN_TEMPERATURE + " REAL NOT NULL, " +
+            COLUMN_FEELS_LIKE + " REAL NOT NULL, " +
+            COLUMN_TEMP_MIN + " REAL NOT NULL, " +
+            COLUMN_TEMP_MAX + " REAL NOT NULL, " +
+            COLUMN_HUMIDITY + " INTEGER NOT NULL, " +
+            COLUMN_RECORDED_AT + " INTEGER NOT NULL, " +
+            "UNIQUE (" + COLUMN_CELL + ", " + COLUMN_FORECAST_TIME + ") ON CONFLICT REPLACE);";
+
+    // Create Saved Locations Table SQL (added in version 3)
+    private static final String CREATE_TABLE_SAVED_LOCATIONS =
+            "CREATE TABLE " + TABLE_SAVED_LOCATIONS + " (" +
+            COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+            COLUMN_NAME + " TEXT NOT NULL, " +
+            COLUMN_LATITUDE + " REAL NOT NULL, " +
+            COLUMN_LONGITUDE + " REAL NOT NULL, " +
+            COLUMN_CREATED_AT + " INTEGER NOT NULL);";
+
+    // Create Geocode Cache Table SQL (added in version 4)
+    private static final String CREATE_TABLE_GEOCODE_CACHE =
+            "CREATE TABLE " + TABLE_GEOCODE_CACHE + " (" +
+            COLUMN_CELL + " TEXT PRIMARY KEY, " +
+            COLUMN_PLACE_NAME + " TEXT NOT NULL, " +
+            COLUMN_LAST_USED_AT + " INTEGER NOT NULL);";
+
+    private static final String CREATE_GEOCODE_INDEX =
+            "CREATE INDEX idx_geocode_last_used ON " + TABLE_GEOCODE_CACHE +
+            " (" + COLUMN_LAST_USED_AT + ");";
+
+    private static final String ADD_COLUMN_IS_DEVICE_FIX =
+            "ALTER TABLE " + TABLE_WEATHER_CONDITIONS + " ADD COLUMN " +
+            COLUMN_IS_DEVICE_FIX + " INTEGER NOT NULL DEFAULT 1;";
+
+    private static final String[] CREATE_WEATHER_INDEXES = {
+            "CREATE INDEX idx_weather_cell_time ON " + TABLE_WEATHER_CONDITIONS +
+                    " (" + COLUMN_CELL + ", " + COLUMN_RECORDED_AT + ");",
+            "CREATE INDEX idx_weather_time ON " + TABLE_WEATHER_CONDITIONS +
+                    " (" + COLUMN_RECORDED_AT + ");",
+            "CREATE INDEX idx_aqi_cell_time ON " + TABLE_AQI_SAMPLES +
+                    " (" + COLUMN_CELL + ", " + COLUMN_RECORDED_AT + ");",
+            "CREATE INDEX idx_aqi_time ON " + TABLE_AQI_SAMPLES +
+                    " (" + COLUMN_RECORDED_AT + ");"
+    };
+
+    private static final String CREATE_FORECAST_INDEX =
+            "CREATE INDEX idx_forecast_time ON " + TABLE_FORECAST_POINTS +
+            " (" + COLUMN_FORECAST_TIME + ");";
+
     // Singleton instance
     private static DatabaseHelper instance;
 
@@ -47,25 +173,132 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     }
 
     private DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    /**
+     * Open a database with the app schema under another name, for tests
+     */
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.setMaxSqlCacheSize(STATEMENT_CACHE_SIZE);
+        // Negative means KiB rather than pages; applies to the connection that runs onCreate/onUpgrade and writes
+        db.execSQL("PRAGMA cache_size = -" + CACHE_SIZE_KIB);
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         // Create the emergency contacts table
         db.execSQL(CREATE_TABLE_EMERGENCY_CONTACTS);
+        createWeatherTables(db);
+        createWatchlistSchema(db);
+        createGeocodeCache(db);
+        createContactNumberIndex(db);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // For now, simply drop and recreate
-        // In production, you'd want to migrate data properly
-        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EMERGENCY_CONTACTS);
-        onCreate(db);
+        // Migrate step by step so existing contacts are preserved
+        if (oldVersion < 2) {
+            createWeatherTables(db);
+        }
+        if (oldVersion < 3) {
+            createWatchlistSchema(db);
+        }
+        if (oldVersion < 4) {
+            createGeocodeCache(db);
+        }
+        if (oldVersion < 5) {
+            createContactNumberIndex(db);
+        }
+        if (oldVersion < 6) {
+            recreateForecastPoints(db);
+        }
     }
 
     @Override
     public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        onUpgrade(db, oldVersion, newVersion);
+        // Unknown newer schema - simply drop and recreate
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_EMERGENCY_CONTACTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_WEATHER_CONDITIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_AQI_SAMPLES);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FORECAST_POINTS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_SAVED_LOCATIONS);
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_GEOCODE_CACHE);
+        onCreate(db);
+    }
+
+    /**
+     * Create the weather history tables (schema version 2)
+     */
+    private void createWeatherTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_WEATHER_CONDITIONS);
+        db.execSQL(CREATE_TABLE_AQI_SAMPLES);
+        db.execSQL(CREATE_TABLE_FORECAST_POINTS);
+        db.execSQL(CREATE_FORECAST_INDEX);
+        for (String sql : CREATE_WEATHER_INDEXES) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Rebuild forecast_points with every ForecastSeries column (schema version 6)
+     * Older points only kept the temperature; they are dropped rather than padded
+     * with made-up values, and the next forecast fetch refills the table
+     */
+    private void recreateForecastPoints(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_FORECAST_POINTS);
+        db.execSQL(CREATE_TABLE_FORECAST_POINTS);
+        db.execSQL(CREATE_FORECAST_INDEX);
+    }
+
+    /**
+     * Create the saved locations table and tag device-fix weather rows (schema version 3)
+     */
+    private void createWatchlistSchema(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_SAVED_LOCATIONS);
+        db.execSQL(ADD_COLUMN_IS_DEVICE_FIX);
+    }
+
+    /**
+     * Create the reverse geocoding cache (schema version 4)
+     */
+    private void createGeocodeCache(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_GEOCODE_CACHE);
+        db.execSQL(CREATE_GEOCODE_INDEX);
+    }
+
+    /**
+     * Add the number lookup columns and fill them in for saved contacts (schema version 5)
+     * SQLite has no function to strip or reverse the digits, so the backfill runs here
+     */
+    private void createContactNumberIndex(SQLiteDatabase db) {
+        for (String sql : CREATE_CONTACT_NUMBER_COLUMNS) {
+            db.execSQL(sql);
+        }
+
+        SQLiteStatement update = db.compileStatement(
+                "UPDATE " + TABLE_EMERGENCY_CONTACTS + " SET " +
+                COLUMN_NORMALIZED_NUMBER + " = ?, " +
+                COLUMN_REVERSED_NUMBER + " = ? WHERE " +
+                COLUMN_ID + " = ?");
+        try (Cursor cursor = db.query(TABLE_EMERGENCY_CONTACTS,
+                new String[]{COLUMN_ID, COLUMN_PHONE_NUMBER}, null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                String phoneNumber = cursor.getString(1);
+                update.bindString(1, PhoneNumbers.normalize(phoneNumber));
+                update.bindString(2, PhoneNumbers.reversed(phoneNumber));
+                update.bindLong(3, cursor.getLong(0));
+                update.executeUpdateDelete();
+            }
+        } finally {
+            update.close();
+        }
     }
 }
@@ -0,0 +1,71 @@
+package com.example.teragaurd;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Tracks how far the device moved over a sliding time window
+ * Fed with every fix; used by LocationPolicy to tell moving from stationary
+ */
+public class DisplacementTracker {
+
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private final long windowMillis;
+    private final ArrayDeque<double[]> samples = new ArrayDeque<>(); // {timeMillis, lat, lon}
+
+    /**
+     * @param windowMillis Length of the window displacement is measured over
+     */
+    public DisplacementTracker(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Record a fix
+     * @param timeMillis Fix time on a monotonic clock (e.g. elapsed realtime)
+     * @param lat Latitude
+     * @param lon Longitude
+     */
+    public void add(long timeMillis, double lat, double lon) {
+        samples.addLast(new double[]{timeMillis, lat, lon});
+        // Keep one sample at or before the window start as the reference point
+        while (samples.size() > 2) {
+            Iterator<double[]> iterator = samples.iterator();
+            iterator.next();
+            double[] second = iterator.next();
+            if (timeMillis - (long) second[0] >= windowMillis) {
+                samples.removeFirst();
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Straight-line distance between the oldest fix in the window and the newest
+     * @return Meters moved, or 0 with fewer than two fixes
+     */
+    public float displacementMeters() {
+        if (samples.size() < 2) return 0f;
+        double[] first = samples.peekFirst();
+        double[] last = samples.peekLast();
+        return (float) distanceMeters(first[1], first[2], last[1], last[2]);
+    }
+
+    public void clear() {
+        samples.clear();
+    }
+
+    /**
+     * Haversine distance between two coordinates
+     */
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -41,11 +41,11 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
 
     private RecyclerView recyclerView;
     private EmergencyContactsAdapter adapter;
-    private List<EmergencyContact> contactsList;
+    private ContactPagingSource pagingSource;
     private String pendingCallNumber;
     
-    // SQLite Database
-    private ContactDAO contactDAO;
+    // SQLite Database, accessed off the main thread
+    private AsyncContactDAO contactDAO;
     
     // Content Provider Helpers
     private CallLogHelper callLogHelper;
@@ -69,9 +69,8 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
             return insets;
         });
 
-        // Initialize SQLite Database
-        contactDAO = new ContactDAO(this);
-        contactDAO.open();
+        // Initialize SQLite Database; opened on first use off the main thread
+        contactDAO = new AsyncContactDAO(this);
         
         // Initialize Content Provider Helpers
         callLogHelper = new CallLogHelper(this);
@@ -94,15 +93,25 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
             return true;
         });
 
-        // Initialize contacts list
-        contactsList = new ArrayList<>();
-        loadContacts();
+        // Contacts are paged in around the scroll position instead of loaded all at once
+        pagingSource = new ContactPagingSource(this, new ContactPagingSource.Listener() {
+            @Override
+            public void onCountChanged(int count) {
+                adapter.notifyDataSetChanged();
+            }
+
+            @Override
+            public void onPageLoaded(int positionStart, int itemCount) {
+                adapter.notifyItemRangeChanged(positionStart, itemCount);
+            }
+        });
 
         // Setup RecyclerView
         recyclerView = findViewById(R.id.recyclerContacts);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new EmergencyContactsAdapter(contactsList, this);
+        adapter = new EmergencyContactsAdapter(pagingSource, this);
         recyclerView.setAdapter(adapter);
+        loadContacts();
 
         // Setup FAB
         FloatingActionButton fab = findViewById(R.id.fabAddContact);
@@ -155,27 +164,10 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
         }
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Ensure database is open when activity resumes
-        if (contactDAO != null) {
-            contactDAO.open();
-        }
-    }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        // Close database when activity is paused to free resources
-        if (contactDAO != null) {
-            contactDAO.close();
-        }
-    }
-    
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        contactDAO.close();
         // Clean up emergency settings
         if (emergencySettingsHelper != null) {
             emergencySettingsHelper.cleanup();
@@ -183,27 +175,23 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
     }
 
     private void loadContacts() {
-        // Check if preset contacts are already in database
-        if (!contactDAO.hasContacts()) {
-            // First time - add preset emergency numbers (India) to database
-            initializePresetContacts();
-        }
-        
-        // Load all contacts from SQLite database
-        contactsList.clear();
-        contactsList.addAll(contactDAO.getAllContacts());
+        // First time the preset contacts are written to the database before loading
+        contactDAO.insertPresetsIfEmpty(presetContacts(), inserted -> pagingSource.refresh());
     }
 
     /**
-     * Initialize preset emergency contacts in database (only runs once)
+     * Preset emergency contacts written to an empty database (only once)
+     * Written in one transaction, so a crash cannot leave a partial preset list behind
      */
-    private void initializePresetContacts() {
-        // Add preset emergency numbers (India) - these are not editable
-        contactDAO.insertContact(new EmergencyContact("Police", "100", false));
-        contactDAO.insertContact(new EmergencyContact("Fire Department", "101", false));
-        contactDAO.insertContact(new EmergencyContact("Ambulance", "102", false));
-        contactDAO.insertContact(new EmergencyContact("Disaster Management", "108", false));
-        contactDAO.insertContact(new EmergencyContact("Women Helpline", "1091", false));
+    private List<EmergencyContact> presetContacts() {
+        // Preset emergency numbers (India) - these are not editable
+        List<EmergencyContact> presets = new ArrayList<>();
+        presets.add(new EmergencyContact("Police", "100", false));
+        presets.add(new EmergencyContact("Fire Department", "101", false));
+        presets.add(new EmergencyContact("Ambulance", "102", false));
+        presets.add(new EmergencyContact("Disaster Management", "108", false));
+        presets.add(new EmergencyContact("Women Helpline", "1091", false));
+        return presets;
     }
     
     // ==================== CONTENT PROVIDER 1: CONTACTS CONTRACT ====================
@@ -252,23 +240,9 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
                 // Clean phone number (remove spaces, dashes)
                 phoneNumber = phoneNumber.replaceAll("[^0-9+]", "");
                 
-                // Check if contact already exists
-                if (isContactExists(phoneNumber)) {
-                    Toast.makeText(this, "Contact already exists", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                
-                // Add to database
-                EmergencyContact newContact = new EmergencyContact(name, phoneNumber, true);
-                long id = contactDAO.insertContact(newContact);
-                
-                if (id != -1) {
-                    newContact.setId(id);
-                    adapter.addItem(newContact);
-                    Toast.makeText(this, "Contact imported: " + name, Toast.LENGTH_SHORT).show();
-                } else {
-                    Toast.makeText(this, "Failed to import contact", Toast.LENGTH_SHORT).show();
-                }
+                // Add to database unless it already exists
+                addContactIfNew(new EmergencyContact(name, phoneNumber, true),
+                        "Contact imported: " + name, "Failed to import contact");
             }
         } catch (Exception e) {
             Toast.makeText(this, "Error importing contact: " + e.getMessage(), Toast.LENGTH_SHORT).show();
@@ -276,19 +250,20 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
     }
     
     /**
-     * Check if a phone number already exists in the database
+     * Save a contact unless its phone number already exists in the database
+     * The check and the insert run as one write, so repeated imports cannot add duplicates
      */
-    private boolean isContactExists(String phoneNumber) {
-        String cleanNumber = phoneNumber.replaceAll("[^0-9]", "");
-        for (EmergencyContact contact : contactsList) {
-            String existingNumber = contact.getPhoneNumber().replaceAll("[^0-9]", "");
-            if (existingNumber.equals(cleanNumber) || 
-                existingNumber.endsWith(cleanNumber) || 
-                cleanNumber.endsWith(existingNumber)) {
-                return true;
+    private void addContactIfNew(EmergencyContact contact, String savedMessage, String failedMessage) {
+        contactDAO.insertIfNew(contact, id -> {
+            if (id == ContactDAO.ALREADY_SAVED) {
+                Toast.makeText(this, "Contact already exists", Toast.LENGTH_SHORT).show();
+            } else if (id != -1) {
+                pagingSource.refresh();
+                Toast.makeText(this, savedMessage, Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, failedMessage, Toast.LENGTH_SHORT).show();
             }
-        }
-        return false;
+        });
     }
     
     // ==================== CONTENT PROVIDER 2: CALL LOG ====================
@@ -371,17 +346,8 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
                 String name = selectedCall.getName() != null ? selectedCall.getName() : "Contact";
                 String number = selectedCall.getNumber();
                 
-                if (!isContactExists(number)) {
-                    EmergencyContact newContact = new EmergencyContact(name, number, true);
-                    long id = contactDAO.insertContact(newContact);
-                    if (id != -1) {
-                        newContact.setId(id);
-                        adapter.addItem(newContact);
-                        Toast.makeText(this, "Contact added from call log", Toast.LENGTH_SHORT).show();
-                    }
-                } else {
-                    Toast.makeText(this, "Contact already exists", Toast.LENGTH_SHORT).show();
-                }
+                addContactIfNew(new EmergencyContact(name, number, true),
+                        "Contact added from call log", "Failed to add contact");
             })
             .setNegativeButton("Cancel", null)
             .show();
@@ -448,15 +414,14 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
 
                     // Create new contact and save to SQLite database
                     EmergencyContact newContact = new EmergencyContact(name, number, true);
-                    long id = contactDAO.insertContact(newContact);
-                    
-                    if (id != -1) {
-                        newContact.setId(id);
-                        adapter.addItem(newContact);
-                        Toast.makeText(this, "Contact saved to database", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(this, "Failed to save contact", Toast.LENGTH_SHORT).show();
-                    }
+                    contactDAO.insertContact(newContact, id -> {
+                        if (id != -1) {
+                            pagingSource.refresh();
+                            Toast.makeText(this, "Contact saved to database", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(this, "Failed to save contact", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .setNeutralButton("Import", (dialog, which) -> {
@@ -477,14 +442,14 @@ public class EmergencyContactsActivity extends AppCompatActivity implements Emer
                 .setMessage("Are you sure you want to delete " + contact.getName() + "?")
                 .setPositiveButton("Delete", (dialog, which) -> {
                     // Delete from SQLite database
-                    int rowsAffected = contactDAO.deleteContact(contact);
-                    
-                    if (rowsAffected > 0) {
-                        adapter.removeItem(position);
-                        Toast.makeText(this, "Contact deleted from database", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(this, "Failed to delete contact", Toast.LENGTH_SHORT).show();
-                    }
+                    contactDAO.deleteContact(contact, rowsAffected -> {
+                        if (rowsAffected > 0) {
+                            pagingSource.refresh();
+                            Toast.makeText(this, "Contact deleted from database", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(this, "Failed to delete contact", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
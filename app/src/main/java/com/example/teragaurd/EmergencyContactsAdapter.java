@@ -9,11 +9,13 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.List;
-
+/**
+ * Binds emergency contacts from a ContactPagingSource
+ * Rows whose page is still loading show as empty placeholders
+ */
 public class EmergencyContactsAdapter extends RecyclerView.Adapter<EmergencyContactsAdapter.ViewHolder> {
 
-    private List<EmergencyContact> contacts;
+    private ContactPagingSource contacts;
     private OnContactActionListener listener;
 
     public interface OnContactActionListener {
@@ -21,7 +23,7 @@ public class EmergencyContactsAdapter extends RecyclerView.Adapter<EmergencyCont
         void onDeleteClick(EmergencyContact contact, int position);
     }
 
-    public EmergencyContactsAdapter(List<EmergencyContact> contacts, OnContactActionListener listener) {
+    public EmergencyContactsAdapter(ContactPagingSource contacts, OnContactActionListener listener) {
         this.contacts = contacts;
         this.listener = listener;
     }
@@ -37,6 +39,16 @@ public class EmergencyContactsAdapter extends RecyclerView.Adapter<EmergencyCont
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         EmergencyContact contact = contacts.get(position);
+        if (contact == null) {
+            // Page still loading; rebound when it arrives
+            holder.txtContactName.setText("");
+            holder.txtContactNumber.setText("");
+            holder.btnDelete.setVisibility(View.GONE);
+            holder.btnCall.setOnClickListener(null);
+            holder.btnDelete.setOnClickListener(null);
+            return;
+        }
+
         holder.txtContactName.setText(contact.getName());
         holder.txtContactNumber.setText(contact.getPhoneNumber());
 
@@ -58,19 +70,7 @@ public class EmergencyContactsAdapter extends RecyclerView.Adapter<EmergencyCont
 
     @Override
     public int getItemCount() {
-        return contacts != null ? contacts.size() : 0;
-    }
-
-    public void removeItem(int position) {
-        if (position >= 0 && position < contacts.size()) {
-            contacts.remove(position);
-            notifyItemRemoved(position);
-        }
-    }
-
-    public void addItem(EmergencyContact contact) {
-        contacts.add(contact);
-        notifyItemInserted(contacts.size() - 1);
+        return contacts != null ? contacts.getCount() : 0;
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder {
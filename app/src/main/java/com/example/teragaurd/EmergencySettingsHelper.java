@@ -285,7 +285,8 @@ public class EmergencySettingsHelper {
     // ==================== EMERGENCY MODE ====================
 
     /**
-     * Activate emergency mode - sets max volume, enables sound, and flashes SOS
+     * Activate emergency mode - sets max volume, enables sound, flashes SOS
+     * and starts recording a location trail
      */
     public void activateEmergencyMode() {
         isEmergencyModeActive = true;
@@ -299,6 +300,9 @@ public class EmergencySettingsHelper {
         
         // Flash SOS pattern
         flashSOSPattern();
+
+        // Record where the user goes while SOS is active
+        SosTrailRecorder.getInstance(context).start();
         
         Log.d(TAG, "Emergency mode ACTIVATED");
     }
@@ -317,6 +321,9 @@ public class EmergencySettingsHelper {
         
         // Turn off flashlight
         turnOffFlashlight();
+
+        // Stop the location trail; it stays on disk for sharing
+        SosTrailRecorder.getInstance(context).stop();
         
         Log.d(TAG, "Emergency mode DEACTIVATED");
     }
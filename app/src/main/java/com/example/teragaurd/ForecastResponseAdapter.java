@@ -0,0 +1,140 @@
+package com.example.teragaurd;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streaming Gson adapter for ForecastResponse
+ * Reads only dt and the main temperature/humidity block of each forecast point
+ * and skips everything else (weather, wind, clouds, city...) without reflection.
+ * Points go straight into a ForecastSeries, so no per-point objects are created
+ */
+public class ForecastResponseAdapter extends TypeAdapter<ForecastResponse> {
+
+    // The 5-day forecast has 40 three-hourly points
+    private static final int EXPECTED_POINTS = 40;
+
+    @Override
+    public ForecastResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        ForecastResponse response = new ForecastResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("list".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                response.setSeries(readList(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+
+    private ForecastSeries readList(JsonReader in) throws IOException {
+        ForecastSeries.Builder builder = new ForecastSeries.Builder(EXPECTED_POINTS);
+        // Scratch state for the current point, reused across points
+        PointReader point = new PointReader();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (point.read(in)) {
+                builder.add(point.dt, point.temp, point.feelsLike, point.tempMin, point.tempMax, point.humidity);
+            }
+        }
+        in.endArray();
+        return builder.build();
+    }
+
+    /**
+     * Reads one forecast point into primitive fields
+     */
+    private static class PointReader {
+        long dt;
+        float temp, feelsLike, tempMin, tempMax;
+        int humidity;
+
+        /**
+         * @return true if the point had a main block (points without one are skipped)
+         */
+        boolean read(JsonReader in) throws IOException {
+            dt = 0;
+            temp = feelsLike = tempMin = tempMax = 0f;
+            humidity = 0;
+            boolean hasMain = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("dt".equals(name)) {
+                    dt = in.nextLong();
+                } else if ("main".equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                    readMain(in);
+                    hasMain = true;
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return hasMain;
+        }
+
+        private void readMain(JsonReader in) throws IOException {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "temp":
+                        temp = (float) in.nextDouble();
+                        break;
+                    case "feels_like":
+                        feelsLike = (float) in.nextDouble();
+                        break;
+                    case "temp_min":
+                        tempMin = (float) in.nextDouble();
+                        break;
+                    case "temp_max":
+                        tempMax = (float) in.nextDouble();
+                        break;
+                    case "humidity":
+                        humidity = in.nextInt();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, ForecastResponse response) throws IOException {
+        if (response == null) {
+            out.nullValue();
+            return;
+        }
+
+        ForecastSeries series = response.getSeries();
+        out.beginObject();
+        out.name("list").beginArray();
+        for (int i = 0; i < series.size(); i++) {
+            out.beginObject();
+            out.name("dt").value(series.getDt(i));
+            out.name("main").beginObject();
+            out.name("temp").value(series.getTemp(i));
+            out.name("feels_like").value(series.getFeelsLike(i));
+            out.name("temp_min").value(series.getTempMin(i));
+            out.name("temp_max").value(series.getTempMax(i));
+            out.name("humidity").value(series.getHumidity(i));
+            out.endObject();
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
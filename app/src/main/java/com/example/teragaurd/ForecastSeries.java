@@ -0,0 +1,122 @@
+package com.example.teragaurd;
+
+import java.util.Arrays;
+
+/**
+ * Compact, immutable forecast series stored as parallel primitive arrays
+ * One index per forecast point; nothing is boxed, so charting, persistence
+ * and analytics can walk multi-day, multi-location series cheaply
+ */
+public class ForecastSeries {
+
+    public static final ForecastSeries EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final long[] dt;         // Unix timestamp (seconds)
+    private final float[] temp;
+    private final float[] feelsLike;
+    private final float[] tempMin;
+    private final float[] tempMax;
+    private final byte[] humidity;   // Percent, 0-100
+
+    private ForecastSeries(Builder builder) {
+        this.size = builder.size;
+        this.dt = Arrays.copyOf(builder.dt, builder.size);
+        this.temp = Arrays.copyOf(builder.temp, builder.size);
+        this.feelsLike = Arrays.copyOf(builder.feelsLike, builder.size);
+        this.tempMin = Arrays.copyOf(builder.tempMin, builder.size);
+        this.tempMax = Arrays.copyOf(builder.tempMax, builder.size);
+        this.humidity = Arrays.copyOf(builder.humidity, builder.size);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public long getDt(int index) { return dt[index]; }
+    public float getTemp(int index) { return temp[index]; }
+    public float getFeelsLike(int index) { return feelsLike[index]; }
+    public float getTempMin(int index) { return tempMin[index]; }
+    public float getTempMax(int index) { return tempMax[index]; }
+    public int getHumidity(int index) { return humidity[index]; }
+
+    /**
+     * Lowest temperature across the series, or NaN if empty
+     */
+    public float minTemp() {
+        if (size == 0) return Float.NaN;
+        float min = temp[0];
+        for (int i = 1; i < size; i++) {
+            if (temp[i] < min) min = temp[i];
+        }
+        return min;
+    }
+
+    /**
+     * Highest temperature across the series, or NaN if empty
+     */
+    public float maxTemp() {
+        if (size == 0) return Float.NaN;
+        float max = temp[0];
+        for (int i = 1; i < size; i++) {
+            if (temp[i] > max) max = temp[i];
+        }
+        return max;
+    }
+
+    /**
+     * Growable builder; arrays are trimmed to size on build()
+     */
+    public static class Builder {
+        private int size;
+        private long[] dt;
+        private float[] temp;
+        private float[] feelsLike;
+        private float[] tempMin;
+        private float[] tempMax;
+        private byte[] humidity;
+
+        /**
+         * @param capacity Expected number of points (the 5-day forecast has 40)
+         */
+        public Builder(int capacity) {
+            dt = new long[capacity];
+            temp = new float[capacity];
+            feelsLike = new float[capacity];
+            tempMin = new float[capacity];
+            tempMax = new float[capacity];
+            humidity = new byte[capacity];
+        }
+
+        public Builder add(long dt, float temp, float feelsLike, float tempMin, float tempMax, int humidity) {
+            if (size == this.dt.length) {
+                grow();
+            }
+            this.dt[size] = dt;
+            this.temp[size] = temp;
+            this.feelsLike[size] = feelsLike;
+            this.tempMin[size] = tempMin;
+            this.tempMax[size] = tempMax;
+            this.humidity[size] = (byte) Math.max(0, Math.min(100, humidity));
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private void grow() {
+            int capacity = Math.max(8, dt.length * 2);
+            dt = Arrays.copyOf(dt, capacity);
+            temp = Arrays.copyOf(temp, capacity);
+            feelsLike = Arrays.copyOf(feelsLike, capacity);
+            tempMin = Arrays.copyOf(tempMin, capacity);
+            tempMax = Arrays.copyOf(tempMax, capacity);
+            humidity = Arrays.copyOf(humidity, capacity);
+        }
+
+        public ForecastSeries build() {
+            return new ForecastSeries(this);
+        }
+    }
+}
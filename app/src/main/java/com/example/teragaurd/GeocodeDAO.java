@@ -0,0 +1,86 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Data Access Object (DAO) for the persistent reverse geocoding cache
+ * Place names are keyed by location cell and evicted least recently used first
+ */
+public class GeocodeDAO {
+
+    // Rows kept after a trim; a few hundred cells cover a user's usual areas
+    static final int MAX_ROWS = 500;
+
+    private SQLiteDatabase database;
+    private DatabaseHelper dbHelper;
+
+    public GeocodeDAO(Context context) {
+        dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Open database connection for writing
+     */
+    public void open() {
+        database = dbHelper.getWritableDatabase();
+    }
+
+    /**
+     * Look up a cached place name and mark it as recently used
+     * @param cell Location cell key
+     * @return Place name, or null if the cell was never resolved
+     */
+    public String getPlaceName(String cell) {
+        String placeName = null;
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_GEOCODE_CACHE,
+                new String[]{DatabaseHelper.COLUMN_PLACE_NAME},
+                DatabaseHelper.COLUMN_CELL + " = ?",
+                new String[]{cell},
+                null, null, null);
+        if (cursor != null) {
+            if (cursor.moveToFirst()) {
+                placeName = cursor.getString(0);
+            }
+            cursor.close();
+        }
+
+        if (placeName != null) {
+            ContentValues values = new ContentValues();
+            values.put(DatabaseHelper.COLUMN_LAST_USED_AT, System.currentTimeMillis());
+            database.update(DatabaseHelper.TABLE_GEOCODE_CACHE, values,
+                    DatabaseHelper.COLUMN_CELL + " = ?", new String[]{cell});
+        }
+        return placeName;
+    }
+
+    /**
+     * Store a resolved place name, replacing any previous entry for the cell
+     * @param cell Location cell key
+     * @param placeName Place name to cache
+     */
+    public void putPlaceName(String cell, String placeName) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_CELL, cell);
+        values.put(DatabaseHelper.COLUMN_PLACE_NAME, placeName);
+        values.put(DatabaseHelper.COLUMN_LAST_USED_AT, System.currentTimeMillis());
+        database.insertWithOnConflict(DatabaseHelper.TABLE_GEOCODE_CACHE, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Delete the least recently used entries beyond MAX_ROWS
+     * @return Number of rows deleted
+     */
+    public int trim() {
+        return database.delete(
+                DatabaseHelper.TABLE_GEOCODE_CACHE,
+                DatabaseHelper.COLUMN_CELL + " NOT IN (SELECT " + DatabaseHelper.COLUMN_CELL +
+                        " FROM " + DatabaseHelper.TABLE_GEOCODE_CACHE +
+                        " ORDER BY " + DatabaseHelper.COLUMN_LAST_USED_AT + " DESC LIMIT " + MAX_ROWS + ")",
+                null);
+    }
+}
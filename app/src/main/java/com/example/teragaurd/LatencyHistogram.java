@@ -0,0 +1,74 @@
+package com.example.teragaurd;
+
+import java.util.Locale;
+
+/**
+ * Small fixed-size histogram with power-of-two buckets
+ * Bucket i counts values in [2^(i-1), 2^i), bucket 0 counts zero; recording is
+ * allocation-free so it can sit on every network call. The histogram has no unit
+ * of its own: NetworkMetrics records timings in microseconds and sizes in bytes
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Record one value (microseconds, bytes, ...); negative values are ignored
+     */
+    public synchronized void record(long value) {
+        if (value < 0) return;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+        counts[bucket]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Approximate percentile: the upper bound of the bucket holding it, capped at max
+     * @param percentile Value between 0 and 100
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                long upper = i == 0 ? 0 : (1L << i) - 1;
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * One-line summary such as "n=12 avg=85 p50=63 p90=255 max=301"
+     */
+    public synchronized String summary() {
+        if (count == 0) return "n=0";
+        return String.format(Locale.US, "n=%d avg=%d min=%d p50=%d p90=%d p99=%d max=%d",
+                count, sum / count, min, percentile(50), percentile(90), percentile(99), max);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.teragaurd;
+
+import java.util.Locale;
+
+/**
+ * Utility class for quantizing coordinates into location cells
+ * Nearby fixes that round to the same cell share cache entries and requests
+ */
+public class LocationCell {
+
+    // 2 decimal places is roughly a 1.1 km cell, plenty for city-level weather
+    public static final int DEFAULT_PRECISION = 2;
+
+    private LocationCell() {
+    }
+
+    /**
+     * Round a coordinate to the given number of decimal places
+     * @param value Latitude or longitude in degrees
+     * @param precision Number of decimal places to keep
+     * @return Rounded coordinate
+     */
+    public static double round(double value, int precision) {
+        double scale = Math.pow(10, precision);
+        return Math.round(value * scale) / scale;
+    }
+
+    /**
+     * Format a coordinate rounded to the given precision
+     * @param value Latitude or longitude in degrees
+     * @param precision Number of decimal places to keep
+     * @return Locale-independent string form of the rounded coordinate
+     */
+    public static String format(double value, int precision) {
+        return String.format(Locale.US, "%." + precision + "f", round(value, precision));
+    }
+
+    /**
+     * Build the cell key for a coordinate pair
+     * @param lat Latitude in degrees
+     * @param lon Longitude in degrees
+     * @param precision Number of decimal places to keep
+     * @return Key such as "28.61,77.21"
+     */
+    public static String key(double lat, double lon, int precision) {
+        return format(lat, precision) + "," + format(lon, precision);
+    }
+
+    /**
+     * Build the cell key for a coordinate pair using the default precision
+     */
+    public static String key(double lat, double lon) {
+        return key(lat, lon, DEFAULT_PRECISION);
+    }
+}
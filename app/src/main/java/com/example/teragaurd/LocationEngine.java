@@ -0,0 +1,307 @@
+package com.example.teragaurd;
+
+import android.Manifest;
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.BatteryManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.gms.location.CurrentLocationRequest;
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+import com.google.android.gms.tasks.CancellationTokenSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * App-scoped location engine for teraGaurd
+ * Holds a single FusedLocationProviderClient subscription and multicasts
+ * every fix to all observers. The subscription is reference-counted: it starts
+ * with the first started observer and stops a short grace period after the
+ * last one goes away, so switching screens reuses the running session and the
+ * cached fix instead of cold-starting GPS. Priority and interval come from
+ * LocationPolicy and are re-evaluated as fixes arrive and observers change.
+ * All methods run on the main thread
+ */
+public class LocationEngine {
+
+    private static final String TAG = "LocationEngine";
+
+    // Window LocationPolicy measures displacement over
+    private static final long DISPLACEMENT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // Keep the session alive across a screen switch
+    private static final long TEARDOWN_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    // A cached fix younger than this is handed to new observers right away
+    private static final long MAX_CACHED_FIX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * Receives fixes on the main thread
+     */
+    public interface Listener {
+        void onLocation(Location location);
+    }
+
+    // Singleton instance
+    private static LocationEngine instance;
+
+    private final Context context;
+    private final FusedLocationProviderClient fusedLocationClient;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<Listener, LocationPolicy.Purpose> listeners = new LinkedHashMap<>();
+    private final Set<Listener> foregroundListeners = new HashSet<>();
+    private final DisplacementTracker displacementTracker = new DisplacementTracker(DISPLACEMENT_WINDOW_MILLIS);
+    private final Runnable teardown = this::stopUpdates;
+    private final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult locationResult) {
+            Location location = locationResult.getLastLocation();
+            if (location != null) {
+                deliver(location);
+            }
+        }
+    };
+
+    private boolean subscribed = false;
+    private LocationPolicy.Decision activeDecision;
+    private Location lastLocation;
+
+    /**
+     * Get singleton instance of LocationEngine
+     * @param context Application context
+     * @return LocationEngine instance
+     */
+    public static synchronized LocationEngine getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationEngine(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LocationEngine(Context context) {
+        this.context = context;
+        fusedLocationClient = LocationServices.getFusedLocationProviderClient(context);
+    }
+
+    /**
+     * Receive fixes while the owner is started; the observer is dropped when it is destroyed
+     * @param owner Activity (or other lifecycle owner) the listener belongs to
+     * @param listener Listener to receive fixes on the main thread
+     */
+    public void observe(LifecycleOwner owner, Listener listener) {
+        owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_START) {
+                    foregroundListeners.add(listener);
+                    addListener(listener, LocationPolicy.Purpose.WEATHER);
+                } else if (event == Lifecycle.Event.ON_STOP) {
+                    foregroundListeners.remove(listener);
+                    removeListener(listener);
+                } else if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                }
+            }
+        });
+    }
+
+    /**
+     * Receive fixes until removeListener() is called, independent of any screen
+     * @param listener Listener to receive fixes on the main thread
+     * @param purpose SOS escalates the shared subscription to high accuracy
+     */
+    public void addListener(Listener listener, LocationPolicy.Purpose purpose) {
+        boolean added = !listeners.containsKey(listener);
+        listeners.put(listener, purpose);
+        mainHandler.removeCallbacks(teardown);
+
+        Location cached = getLastLocation();
+        if (added && cached != null) {
+            listener.onLocation(cached);
+        }
+        updateSubscription();
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+        foregroundListeners.remove(listener);
+        if (listeners.isEmpty()) {
+            mainHandler.postDelayed(teardown, TEARDOWN_GRACE_MILLIS);
+        } else {
+            updateSubscription();
+        }
+    }
+
+    /**
+     * Get the most recent fix, if it is still fresh enough to render
+     * @return Cached fix, or null
+     */
+    public Location getLastLocation() {
+        if (lastLocation == null || ageMillis(lastLocation) > MAX_CACHED_FIX_AGE_MILLIS) {
+            return null;
+        }
+        return lastLocation;
+    }
+
+    public boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    /**
+     * Ask for one network-level fix, delivered to listeners like any other fix
+     * Used to get a first location quickly while the subscription warms up;
+     * gives up silently after the timeout
+     * @param timeoutMillis How long the provider may take
+     */
+    @SuppressLint("MissingPermission")
+    public void requestQuickFix(long timeoutMillis) {
+        if (!hasPermission()) return;
+
+        CurrentLocationRequest request = new CurrentLocationRequest.Builder()
+                .setPriority(Priority.PRIORITY_BALANCED_POWER_ACCURACY)
+                .setMaxUpdateAgeMillis(MAX_CACHED_FIX_AGE_MILLIS)
+                .setDurationMillis(timeoutMillis)
+                .build();
+        CancellationTokenSource cancellation = new CancellationTokenSource();
+        mainHandler.postDelayed(cancellation::cancel, timeoutMillis);
+
+        try {
+            fusedLocationClient.getCurrentLocation(request, cancellation.getToken())
+                    .addOnSuccessListener(location -> {
+                        // Never replace a newer fix from the subscription
+                        if (location != null && (lastLocation == null
+                                || location.getElapsedRealtimeNanos() > lastLocation.getElapsedRealtimeNanos())) {
+                            deliver(location);
+                        }
+                    })
+                    .addOnFailureListener(e -> Log.w(TAG, "Quick fix failed: " + e.getMessage()));
+        } catch (SecurityException e) {
+            Log.e(TAG, "Location permission revoked: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start the subscription after the user grants location permission
+     */
+    public void onPermissionGranted() {
+        if (!listeners.isEmpty()) {
+            updateSubscription();
+        }
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * Start the subscription, or re-issue it if the policy decision changed
+     */
+    @SuppressLint("MissingPermission")
+    private void updateSubscription() {
+        if (listeners.isEmpty() || !hasPermission()) return;
+
+        LocationPolicy.Decision decision = LocationPolicy.decide(
+                currentPurpose(),
+                !foregroundListeners.isEmpty(),
+                displacementTracker.displacementMeters(),
+                batteryPercent(),
+                isCharging());
+        if (subscribed && decision.equals(activeDecision)) return;
+
+        // Seed observers from the platform cache while the first fix is acquired
+        if (!subscribed && lastLocation == null) {
+            fusedLocationClient.getLastLocation()
+                    .addOnSuccessListener(location -> {
+                        if (location != null && lastLocation == null) {
+                            deliver(location);
+                        }
+                    })
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to get last location: " + e.getMessage()));
+        }
+
+        LocationRequest locationRequest = new LocationRequest.Builder(decision.getPriority(), decision.getIntervalMillis())
+                .setWaitForAccurateLocation(false)
+                .setMinUpdateIntervalMillis(decision.getMinIntervalMillis())
+                .setMaxUpdateDelayMillis(decision.getMaxUpdateDelayMillis())
+                .setMinUpdateDistanceMeters(decision.getMinDistanceMeters())
+                .build();
+
+        try {
+            // Re-requesting with the same callback replaces the previous request
+            fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
+            subscribed = true;
+            activeDecision = decision;
+            Log.d(TAG, "Location updates: " + decision);
+        } catch (SecurityException e) {
+            Log.e(TAG, "Location permission revoked: " + e.getMessage());
+            subscribed = false;
+            activeDecision = null;
+        }
+    }
+
+    private void stopUpdates() {
+        if (!subscribed || !listeners.isEmpty()) return;
+        subscribed = false;
+        activeDecision = null;
+        displacementTracker.clear();
+        Log.d(TAG, "Stopping shared location updates");
+        fusedLocationClient.removeLocationUpdates(locationCallback);
+    }
+
+    private LocationPolicy.Purpose currentPurpose() {
+        return listeners.containsValue(LocationPolicy.Purpose.SOS)
+                ? LocationPolicy.Purpose.SOS
+                : LocationPolicy.Purpose.WEATHER;
+    }
+
+    private int batteryPercent() {
+        BatteryManager batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        return batteryManager != null
+                ? batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY)
+                : -1;
+    }
+
+    private boolean isCharging() {
+        BatteryManager batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        return batteryManager != null && batteryManager.isCharging();
+    }
+
+    private static long ageMillis(Location location) {
+        return TimeUnit.NANOSECONDS.toMillis(
+                SystemClock.elapsedRealtimeNanos() - location.getElapsedRealtimeNanos());
+    }
+
+    private void deliver(Location location) {
+        lastLocation = location;
+        displacementTracker.add(TimeUnit.NANOSECONDS.toMillis(location.getElapsedRealtimeNanos()),
+                location.getLatitude(), location.getLongitude());
+
+        // Copy so listeners may unsubscribe from inside the callback
+        for (Listener listener : new ArrayList<>(listeners.keySet())) {
+            listener.onLocation(location);
+        }
+
+        // Movement may have changed the right interval
+        updateSubscription();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.teragaurd;
+
+import com.google.android.gms.location.Priority;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chooses how the shared location subscription is configured
+ * A weather lookup only needs a city-level fix, so weather uses balanced or
+ * low-power priority with batching allowed; only an active SOS escalates to
+ * high accuracy. Movement shortens the interval, a stationary device or a low
+ * battery stretches it
+ */
+public final class LocationPolicy {
+
+    public enum Purpose {
+        WEATHER,
+        SOS
+    }
+
+    // Displacement over DisplacementTracker's window that counts as moving / stationary
+    static final float MOVING_METERS = 500f;
+    static final float STATIONARY_METERS = 50f;
+
+    // Below this level (and not charging) the battery counts as low
+    static final int LOW_BATTERY_PERCENT = 20;
+
+    // Weather, screen in the foreground
+    private static final long WEATHER_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long WEATHER_MOVING_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long WEATHER_STATIONARY_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final float WEATHER_MIN_DISTANCE_METERS = 100f;
+
+    // Weather, nothing on screen
+    private static final long BACKGROUND_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    // SOS tracking
+    private static final long SOS_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long SOS_STATIONARY_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    private static final long SOS_LOW_BATTERY_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(20);
+
+    /**
+     * A location request configuration
+     */
+    public static final class Decision {
+        private final int priority;
+        private final long intervalMillis;
+        private final long minIntervalMillis;
+        private final long maxUpdateDelayMillis;
+        private final float minDistanceMeters;
+
+        Decision(int priority, long intervalMillis, long minIntervalMillis,
+                 long maxUpdateDelayMillis, float minDistanceMeters) {
+            this.priority = priority;
+            this.intervalMillis = intervalMillis;
+            this.minIntervalMillis = minIntervalMillis;
+            this.maxUpdateDelayMillis = maxUpdateDelayMillis;
+            this.minDistanceMeters = minDistanceMeters;
+        }
+
+        /**
+         * One of the com.google.android.gms.location.Priority constants
+         */
+        public int getPriority() { return priority; }
+        public long getIntervalMillis() { return intervalMillis; }
+        public long getMinIntervalMillis() { return minIntervalMillis; }
+        public long getMaxUpdateDelayMillis() { return maxUpdateDelayMillis; }
+        public float getMinDistanceMeters() { return minDistanceMeters; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Decision)) return false;
+            Decision other = (Decision) o;
+            return priority == other.priority
+                    && intervalMillis == other.intervalMillis
+                    && minIntervalMillis == other.minIntervalMillis
+                    && maxUpdateDelayMillis == other.maxUpdateDelayMillis
+                    && Float.compare(minDistanceMeters, other.minDistanceMeters) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = priority;
+            result = 31 * result + (int) (intervalMillis ^ (intervalMillis >>> 32));
+            result = 31 * result + (int) (maxUpdateDelayMillis ^ (maxUpdateDelayMillis >>> 32));
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "priority=%d interval=%dms min=%dms maxDelay=%dms distance=%.0fm",
+                    priority, intervalMillis, minIntervalMillis, maxUpdateDelayMillis, minDistanceMeters);
+        }
+    }
+
+    private LocationPolicy() {
+    }
+
+    /**
+     * Pick the request configuration for the current context
+     * @param purpose WEATHER, or SOS while emergency tracking is active
+     * @param foreground Whether a screen showing location data is started
+     * @param displacementMeters Distance moved over the recent window (see DisplacementTracker)
+     * @param batteryPercent Battery level 0-100, or -1 if unknown
+     * @param charging Whether the device is charging
+     * @return Request configuration
+     */
+    public static Decision decide(Purpose purpose, boolean foreground, float displacementMeters,
+                                  int batteryPercent, boolean charging) {
+        boolean lowBattery = !charging && batteryPercent >= 0 && batteryPercent < LOW_BATTERY_PERCENT;
+        boolean moving = displacementMeters >= MOVING_METERS;
+        boolean stationary = displacementMeters < STATIONARY_METERS;
+
+        if (purpose == Purpose.SOS) {
+            // The only case that pays for GPS; no batching so responders see every fix
+            long interval = lowBattery ? SOS_LOW_BATTERY_INTERVAL_MILLIS
+                    : stationary ? SOS_STATIONARY_INTERVAL_MILLIS
+                    : SOS_INTERVAL_MILLIS;
+            return new Decision(Priority.PRIORITY_HIGH_ACCURACY, interval, interval / 2, 0, 0f);
+        }
+
+        if (!foreground) {
+            return new Decision(Priority.PRIORITY_LOW_POWER, BACKGROUND_INTERVAL_MILLIS,
+                    BACKGROUND_INTERVAL_MILLIS / 2, BACKGROUND_INTERVAL_MILLIS * 2, WEATHER_MIN_DISTANCE_METERS * 5);
+        }
+
+        long interval = moving ? WEATHER_MOVING_INTERVAL_MILLIS
+                : stationary ? WEATHER_STATIONARY_INTERVAL_MILLIS
+                : WEATHER_INTERVAL_MILLIS;
+        int priority = Priority.PRIORITY_BALANCED_POWER_ACCURACY;
+        if (lowBattery) {
+            interval *= 2;
+            priority = Priority.PRIORITY_LOW_POWER;
+        }
+        // Let the provider batch fixes; a weather cell is kilometres wide
+        return new Decision(priority, interval, interval / 2, interval * 2, WEATHER_MIN_DISTANCE_METERS);
+    }
+}
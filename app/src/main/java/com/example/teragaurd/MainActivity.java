@@ -1,13 +1,14 @@
 package com.example.teragaurd;
 
 import android.Manifest;
-import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.MenuItem;
 import android.view.View;
@@ -29,12 +30,6 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.ValueFormatter;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
-import com.google.android.gms.location.LocationResult;
-import com.google.android.gms.location.LocationServices;
-import com.google.android.gms.location.Priority;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 import java.text.SimpleDateFormat;
@@ -43,32 +38,40 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
-
-public class MainActivity extends AppCompatActivity {
+public class MainActivity extends AppCompatActivity implements NetworkModule.ConnectivityListener {
 
     private static final String TAG = "MainActivity";
-    private FusedLocationProviderClient fusedLocationClient;
-    private LocationCallback locationCallback;
+    private static final String TAG_FIRST_WEATHER = "TimeToFirstWeather";
+
+    // Startup cascade: stored location, then a quick network fix, then the subscription;
+    // each stage has its own deadline, and live data has one until it arrives
+    private static final long STORED_SNAPSHOT_TIMEOUT_MILLIS = 2000;
+    private static final long QUICK_FIX_TIMEOUT_MILLIS = 5000;
+    private static final long FIRST_LIVE_TIMEOUT_MILLIS = 20000;
+
+    private LocationEngine locationEngine;
     private double latitude, longitude;
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 101;
-    // IMPORTANT: Replace "YOUR_API_KEY" with your actual OpenWeatherMap API key
-    private static final String API_KEY = "72aa5ebf5045980623cd8ff3e86a6e01";
 
     private TextView txtTemp, txtAqi, txtAqiStatus, txtChartLoading;
     private LineChart temperatureChart;
-    private ApiService apiService;
+    private WeatherRepository weatherRepository;
     private BottomNavigationView bottomNavigationView;
     private boolean dataFetched = false;
-    private List<Long> forecastTimestamps = new ArrayList<>();
+    private boolean hasLocation = false; // latitude/longitude hold a fix or the stored location
+    private ForecastSeries chartSeries = ForecastSeries.EMPTY;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable storedSnapshotTimeout = this::onStoredSnapshotTimeout;
+    private final Runnable firstLiveTimeout = this::onFirstLiveTimeout;
+    private long createdAtMillis;
+    private boolean firstStoredRecorded = false;
+    private boolean firstLiveRecorded = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        createdAtMillis = SystemClock.elapsedRealtime();
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
@@ -92,6 +95,12 @@ public class MainActivity extends AppCompatActivity {
         // Setup the temperature trend chart
         setupChart();
 
+        // Hidden debug screen with per-endpoint network timings
+        txtTemp.setOnLongClickListener(v -> {
+            startActivity(new Intent(MainActivity.this, NetworkStatsActivity.class));
+            return true;
+        });
+
         bottomNavigationView.setOnNavigationItemSelectedListener(new BottomNavigationView.OnNavigationItemSelectedListener() {
             @Override
             public boolean onNavigationItemSelected(@NonNull MenuItem item) {
@@ -110,46 +119,43 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl("https://api.openweathermap.org/data/2.5/")
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
+        // Repository joins weather, AQI and forecast into one snapshot
+        weatherRepository = WeatherRepository.getInstance(this);
+
+        // Stage 1: show the last stored snapshot right away and revalidate it for
+        // the stored location until a real fix arrives
+        weatherRepository.loadLastKnown(snapshot -> {
+            onSnapshot(snapshot);
+            if (!dataFetched) {
+                Log.d(TAG, "No fix yet, loading weather for the stored location");
+                latitude = snapshot.getLatitude();
+                longitude = snapshot.getLongitude();
+                hasLocation = true;
+                loadWeather(latitude, longitude);
+            }
+        });
+        mainHandler.postDelayed(storedSnapshotTimeout, STORED_SNAPSHOT_TIMEOUT_MILLIS);
 
-        apiService = retrofit.create(ApiService.class);
+        // Keep the store warm in the background for the next launch
+        WeatherPrefetchWorker.schedule(this);
 
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+        // Shared location session; fixes arrive while this screen is started
+        locationEngine = LocationEngine.getInstance(this);
+        locationEngine.observe(this, this::onLocation);
 
-        // Setup location callback for active location requests
-        locationCallback = new LocationCallback() {
-            @Override
-            public void onLocationResult(@NonNull LocationResult locationResult) {
-                if (locationResult == null || dataFetched) return;
-                
-                Location location = locationResult.getLastLocation();
-                if (location != null) {
-                    dataFetched = true;
-                    latitude = location.getLatitude();
-                    longitude = location.getLongitude();
-                    Log.d(TAG, "Got location from callback: " + latitude + ", " + longitude);
-                    
-                    fetchWeather(latitude, longitude);
-                    fetchAqi(latitude, longitude);
-                    fetchForecast(latitude, longitude);
-                    
-                    // Stop location updates after getting location
-                    stopLocationUpdates();
-                }
-            }
-        };
+        // Stage 2: a network-level fix is usually seconds faster than the first GPS fix
+        locationEngine.requestQuickFix(QUICK_FIX_TIMEOUT_MILLIS);
+
+        // Runs until live data is on screen, even if stored data is shown first
+        mainHandler.postDelayed(firstLiveTimeout, FIRST_LIVE_TIMEOUT_MILLIS);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        dataFetched = false;
-        if (hasLocationPermission()) {
-            getUserLocation();
-        } else {
+        Log.d(TAG, "Response cache: " + NetworkModule.getInstance(this).getResponseCache().getStats());
+        NetworkModule.getInstance(this).addConnectivityListener(this);
+        if (!locationEngine.hasPermission()) {
             requestLocationPermission();
         }
     }
@@ -157,112 +163,143 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        stopLocationUpdates();
+        NetworkModule.getInstance(this).removeConnectivityListener(this);
     }
 
-    private void stopLocationUpdates() {
-        if (fusedLocationClient != null && locationCallback != null) {
-            fusedLocationClient.removeLocationUpdates(locationCallback);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        mainHandler.removeCallbacks(storedSnapshotTimeout);
+        mainHandler.removeCallbacks(firstLiveTimeout);
+    }
+
+    @Override
+    public void onConnectivityRestored() {
+        // Retry promptly instead of waiting for the next resume, using the stored
+        // location if no fix has arrived yet
+        if (hasLocation) {
+            Log.d(TAG, "Connectivity restored, reloading weather");
+            loadWeather(latitude, longitude);
+        } else {
+            Log.d(TAG, "Connectivity restored, requesting a quick fix");
+            locationEngine.requestQuickFix(QUICK_FIX_TIMEOUT_MILLIS);
+        }
+        if (!firstLiveRecorded) {
+            // Give the retry a full live-data deadline of its own
+            mainHandler.removeCallbacks(firstLiveTimeout);
+            mainHandler.postDelayed(firstLiveTimeout, FIRST_LIVE_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Stage 3: every fix, coarse or refined, goes to the repository; its refresh
+     * gate only refetches when the fix moved materially or the data expired
+     */
+    private void onLocation(Location location) {
+        dataFetched = true;
+        hasLocation = true;
+        latitude = location.getLatitude();
+        longitude = location.getLongitude();
+        Log.d(TAG, "Got location: " + latitude + ", " + longitude
+                + " (accuracy " + location.getAccuracy() + "m)");
+
+        loadWeather(latitude, longitude);
+    }
+
+    /**
+     * Load weather, AQI and forecast as one snapshot and render it in a single pass
+     */
+    private void loadWeather(double lat, double lon) {
+        weatherRepository.load(lat, lon, this::onSnapshot);
+    }
+
+    private void onSnapshot(WeatherSnapshot snapshot) {
+        renderSnapshot(snapshot);
+        recordFirstWeather(snapshot);
+    }
+
+    /**
+     * Record time-to-first-weather once per screen, separately for stored and live data
+     * Logged with the app version so it can be compared release over release
+     */
+    private void recordFirstWeather(WeatherSnapshot snapshot) {
+        boolean live = snapshot.hasCurrentData();
+        if (live ? firstLiveRecorded : firstStoredRecorded) return;
+        if (live) {
+            firstLiveRecorded = true;
+            mainHandler.removeCallbacks(firstLiveTimeout);
+        } else {
+            firstStoredRecorded = true;
         }
+        mainHandler.removeCallbacks(storedSnapshotTimeout);
+
+        long elapsedMillis = SystemClock.elapsedRealtime() - createdAtMillis;
+        String phase = live ? NetworkMetrics.PHASE_FIRST_LIVE : NetworkMetrics.PHASE_FIRST_STORED;
+        NetworkModule.getInstance(this).getNetworkMetrics()
+                .record(NetworkMetrics.ENDPOINT_DASHBOARD, phase, elapsedMillis * 1000);
+        Log.i(TAG_FIRST_WEATHER, "version=" + getVersionName() + " " + phase + "=" + elapsedMillis + "ms");
     }
 
-    @SuppressLint("MissingPermission")
-    private void getUserLocation() {
-        if (fusedLocationClient == null) return;
-        
-        Log.d(TAG, "Getting user location...");
-        
-        fusedLocationClient.getLastLocation()
-                .addOnSuccessListener(location -> {
-                    if (location != null && !dataFetched) {
-                        dataFetched = true;
-                        latitude = location.getLatitude();
-                        longitude = location.getLongitude();
-                        Log.d(TAG, "Got cached location: " + latitude + ", " + longitude);
-
-                        fetchWeather(latitude, longitude);
-                        fetchAqi(latitude, longitude);
-                        fetchForecast(latitude, longitude);
-                    } else if (!dataFetched) {
-                        // No cached location available, request active location
-                        Log.d(TAG, "No cached location, requesting active location...");
-                        requestActiveLocation();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get last location: " + e.getMessage());
-                    if (!dataFetched) {
-                        requestActiveLocation();
-                    }
-                });
+    /**
+     * Stage 1 deadline: nothing stored (or the read is slow), so say we are waiting for a fix
+     */
+    private void onStoredSnapshotTimeout() {
+        if (firstStoredRecorded || firstLiveRecorded) return;
+        Log.i(TAG_FIRST_WEATHER, "version=" + getVersionName() + " no stored weather after "
+                + STORED_SNAPSHOT_TIMEOUT_MILLIS + "ms");
+        txtTemp.setText("Locating...");
     }
 
-    @SuppressLint("MissingPermission")
-    private void requestActiveLocation() {
-        Log.d(TAG, "Requesting active location updates...");
-        
-        LocationRequest locationRequest = new LocationRequest.Builder(Priority.PRIORITY_HIGH_ACCURACY, 10000)
-                .setWaitForAccurateLocation(false)
-                .setMinUpdateIntervalMillis(5000)
-                .setMaxUpdateDelayMillis(15000)
-                .build();
-
-        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
+    /**
+     * Live-data deadline: keep stored data on screen if there is some, but tell the user it is old
+     */
+    private void onFirstLiveTimeout() {
+        if (firstLiveRecorded) return;
+        Log.w(TAG_FIRST_WEATHER, "version=" + getVersionName() + " no live weather after "
+                + FIRST_LIVE_TIMEOUT_MILLIS + "ms" + (firstStoredRecorded ? ", showing stored" : ""));
+        if (firstStoredRecorded) {
+            Toast.makeText(this, "Showing saved weather. It will update once you are back online.",
+                    Toast.LENGTH_LONG).show();
+            return;
+        }
+        txtTemp.setText("--");
+        txtAqi.setText("--");
+        showChartError();
+        Toast.makeText(this, "Unable to get your location. Weather will update once a fix is available.",
+                Toast.LENGTH_LONG).show();
     }
 
-    private void fetchWeather(double lat, double lon) {
-        apiService.getWeather(lat, lon, API_KEY, "metric")
-                .enqueue(new Callback<WeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<WeatherResponse> call,
-                                           Response<WeatherResponse> response) {
-
-                        if (response.isSuccessful() && response.body() != null) {
-                            WeatherResponse.Main main = response.body().getMain();
-                            if (main != null) {
-                                double temp = main.getTemp();
-                                txtTemp.setText(Math.round(temp) + "°C");
-                            }
-                        } else {
-                            Log.e("Weather", "Response error: " + response.code());
-                            txtTemp.setText("--");
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                        Log.e("Weather", "Network error: " + t.getMessage());
-                        txtTemp.setText("--");
-                    }
-                });
+    private String getVersionName() {
+        try {
+            return getPackageManager().getPackageInfo(getPackageName(), 0).versionName;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "unknown";
+        }
     }
 
-    private void fetchAqi(double lat, double lon) {
-        apiService.getAqi(lat, lon, API_KEY)
-                .enqueue(new Callback<AqiResponse>() {
-                    @Override
-                    public void onResponse(Call<AqiResponse> call, Response<AqiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null && response.body().getList() != null && !response.body().getList().isEmpty()) {
-                            AqiResponse.AqiData aqiData = response.body().getList().get(0);
-                            if (aqiData != null && aqiData.getMain() != null) {
-                                int aqi = aqiData.getMain().getAqi();
-                                txtAqi.setText(String.valueOf(aqi));
-                                setAqiStatus(aqi);
-                            }
-                        } else {
-                             Log.e("AQI", "Response error: " + response.code());
-                             txtAqi.setText("--");
-                             txtAqiStatus.setText("");
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<AqiResponse> call, Throwable t) {
-                        Log.e("AQI", "Network error: " + t.getMessage());
-                        txtAqi.setText("--");
-                        txtAqiStatus.setText("");
-                    }
-                });
+    /**
+     * Render every dashboard field from one snapshot so the screen updates in one frame
+     */
+    private void renderSnapshot(WeatherSnapshot snapshot) {
+        if (snapshot.hasTemperature()) {
+            txtTemp.setText(Math.round(snapshot.getTemperature()) + "°C");
+        } else {
+            txtTemp.setText("--");
+        }
+
+        if (snapshot.hasAqi()) {
+            txtAqi.setText(String.valueOf(snapshot.getAqi()));
+            setAqiStatus(snapshot.getAqi());
+        } else {
+            txtAqi.setText("--");
+            txtAqiStatus.setText("");
+        }
+
+        if (snapshot.hasForecast()) {
+            updateChart(snapshot.getForecast());
+        } else {
+            showChartError();
+        }
     }
 
     private void setAqiStatus(int aqi) {
@@ -304,11 +341,6 @@ public class MainActivity extends AppCompatActivity {
         ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.ACCESS_FINE_LOCATION}, LOCATION_PERMISSION_REQUEST_CODE);
     }
 
-    private boolean hasLocationPermission() {
-        return ActivityCompat.checkSelfPermission(this,
-                Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
-    }
-
     @Override
     public void onRequestPermissionsResult(int requestCode,
                                            @NonNull String[] permissions,
@@ -318,7 +350,8 @@ public class MainActivity extends AppCompatActivity {
         if (requestCode == LOCATION_PERMISSION_REQUEST_CODE) {
             if (grantResults.length > 0 &&
                     grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                getUserLocation();
+                locationEngine.onPermissionGranted();
+                locationEngine.requestQuickFix(QUICK_FIX_TIMEOUT_MILLIS);
             } else {
                 Toast.makeText(this, "Location permission is required to show weather data.", Toast.LENGTH_LONG).show();
                 txtTemp.setText("--");
@@ -359,8 +392,8 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public String getFormattedValue(float value) {
                 int index = (int) value;
-                if (index >= 0 && index < forecastTimestamps.size()) {
-                    return sdf.format(new Date(forecastTimestamps.get(index) * 1000L));
+                if (index >= 0 && index < chartSeries.size()) {
+                    return sdf.format(new Date(chartSeries.getDt(index) * 1000L));
                 }
                 return "";
             }
@@ -383,56 +416,20 @@ public class MainActivity extends AppCompatActivity {
         temperatureChart.getAxisRight().setEnabled(false);
     }
 
-    /**
-     * Fetch forecast data for 24-hour temperature trend
-     * OpenWeatherMap forecast provides data in 3-hour intervals, so we get 8 data points for 24 hours
-     */
-    private void fetchForecast(double lat, double lon) {
-        // 8 data points * 3 hours = 24 hours of forecast data
-        apiService.getForecast(lat, lon, API_KEY, "metric", 8)
-                .enqueue(new Callback<ForecastResponse>() {
-                    @Override
-                    public void onResponse(Call<ForecastResponse> call, Response<ForecastResponse> response) {
-                        if (response.isSuccessful() && response.body() != null && response.body().getList() != null) {
-                            List<ForecastResponse.HourlyData> hourlyDataList = response.body().getList();
-                            updateChart(hourlyDataList);
-                        } else {
-                            Log.e(TAG, "Forecast response error: " + response.code());
-                            showChartError();
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<ForecastResponse> call, Throwable t) {
-                        Log.e(TAG, "Forecast network error: " + t.getMessage());
-                        showChartError();
-                    }
-                });
-    }
-
     /**
      * Update the chart with forecast temperature data
      */
-    private void updateChart(List<ForecastResponse.HourlyData> hourlyDataList) {
-        if (temperatureChart == null || hourlyDataList == null || hourlyDataList.isEmpty()) {
+    private void updateChart(ForecastSeries series) {
+        if (temperatureChart == null || series == null || series.isEmpty()) {
             showChartError();
             return;
         }
 
-        forecastTimestamps.clear();
-        List<Entry> entries = new ArrayList<>();
-
-        for (int i = 0; i < hourlyDataList.size(); i++) {
-            ForecastResponse.HourlyData data = hourlyDataList.get(i);
-            if (data.getMain() != null) {
-                entries.add(new Entry(i, (float) data.getMain().getTemp()));
-                forecastTimestamps.add(data.getDt());
-            }
-        }
-
-        if (entries.isEmpty()) {
-            showChartError();
-            return;
+        // Axis labels read timestamps straight from the series
+        chartSeries = series;
+        List<Entry> entries = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            entries.add(new Entry(i, series.getTemp(i)));
         }
 
         // Create dataset with styling
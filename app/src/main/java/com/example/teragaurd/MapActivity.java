@@ -1,17 +1,13 @@
 package com.example.teragaurd;
 
 import android.Manifest;
-import android.annotation.SuppressLint;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.location.Address;
-import android.location.Geocoder;
 import android.location.Location;
 import android.os.Bundle;
-import android.os.Looper;
 import android.util.Log;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -21,12 +17,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationCallback;
-import com.google.android.gms.location.LocationRequest;
-import com.google.android.gms.location.LocationResult;
-import com.google.android.gms.location.LocationServices;
-import com.google.android.gms.location.Priority;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.mapbox.geojson.Point;
 import com.mapbox.maps.CameraOptions;
@@ -38,24 +28,15 @@ import com.mapbox.maps.plugin.annotation.generated.PointAnnotationManager;
 import com.mapbox.maps.plugin.annotation.generated.PointAnnotationManagerKt;
 import com.mapbox.maps.plugin.annotation.generated.PointAnnotationOptions;
 
-import java.io.IOException;
-import java.util.List;
 import java.util.Locale;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
-
 public class MapActivity extends AppCompatActivity {
 
     private static final String TAG = "MapActivity";
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1;
     
     private MapView mapView;
-    private FusedLocationProviderClient fusedLocationClient;
-    private LocationCallback locationCallback;
+    private LocationEngine locationEngine;
     private TextView temperatureTextView;
     private TextView aqiTextView;
     private TextView txtLocationName;
@@ -63,7 +44,8 @@ public class MapActivity extends AppCompatActivity {
     private FloatingActionButton fabBack;
     private boolean dataFetched = false;
     private PointAnnotationManager pointAnnotationManager;
-    private final String openWeatherMapApiKey = "72aa5ebf5045980623cd8ff3e86a6e01";
+    private WeatherRepository weatherRepository;
+    private Location currentLocation;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -78,6 +60,9 @@ public class MapActivity extends AppCompatActivity {
         txtCoordinates = findViewById(R.id.txtCoordinates);
         fabBack = findViewById(R.id.fabBack);
 
+        // Shared repository - same snapshot the dashboard renders
+        weatherRepository = WeatherRepository.getInstance(this);
+
         // Set loading state
         temperatureTextView.setText("Loading...");
         aqiTextView.setText("Loading...");
@@ -87,6 +72,12 @@ public class MapActivity extends AppCompatActivity {
         // Back button functionality
         fabBack.setOnClickListener(v -> finish());
 
+        // Long-press the location card to add this place to the watchlist
+        findViewById(R.id.cardLocation).setOnLongClickListener(v -> {
+            saveToWatchlist();
+            return true;
+        });
+
         // Initialize Mapbox map with dark style
         mapView.getMapboxMap().loadStyleUri(Style.DARK, style -> {
             Log.d(TAG, "Mapbox style loaded successfully");
@@ -95,63 +86,20 @@ public class MapActivity extends AppCompatActivity {
             AnnotationPlugin annotationPlugin = AnnotationPluginImplKt.getAnnotations(mapView);
             pointAnnotationManager = PointAnnotationManagerKt.createPointAnnotationManager(annotationPlugin, mapView);
             
-            // Check location permission and get location
-            if (hasLocationPermission()) {
-                getUserLocation();
-            } else {
+            // Subscribe once the map can show the marker; a cached fix arrives immediately
+            locationEngine.observe(this, this::onLocation);
+            if (!locationEngine.hasPermission()) {
                 requestLocationPermission();
             }
         });
 
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
-
-        // Setup location callback
-        locationCallback = new LocationCallback() {
-            @Override
-            public void onLocationResult(@NonNull LocationResult locationResult) {
-                if (locationResult == null || dataFetched) return;
-
-                Location location = locationResult.getLastLocation();
-                if (location != null) {
-                    dataFetched = true;
-                    handleLocationUpdate(location);
-                    stopLocationUpdates();
-                }
-            }
-        };
-    }
-
-    @SuppressLint("MissingPermission")
-    private void getUserLocation() {
-        Log.d(TAG, "Getting user location...");
-
-        fusedLocationClient.getLastLocation()
-                .addOnSuccessListener(location -> {
-                    if (location != null && !dataFetched) {
-                        dataFetched = true;
-                        handleLocationUpdate(location);
-                    } else if (!dataFetched) {
-                        Log.d(TAG, "No cached location, requesting active location...");
-                        requestActiveLocation();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to get last location: " + e.getMessage());
-                    if (!dataFetched) {
-                        requestActiveLocation();
-                    }
-                });
+        locationEngine = LocationEngine.getInstance(this);
     }
 
-    @SuppressLint("MissingPermission")
-    private void requestActiveLocation() {
-        LocationRequest locationRequest = new LocationRequest.Builder(Priority.PRIORITY_HIGH_ACCURACY, 10000)
-                .setWaitForAccurateLocation(false)
-                .setMinUpdateIntervalMillis(5000)
-                .setMaxUpdateDelayMillis(15000)
-                .build();
-
-        fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
+    private void onLocation(Location location) {
+        if (dataFetched) return;
+        dataFetched = true;
+        handleLocationUpdate(location);
     }
 
     private void handleLocationUpdate(Location location) {
@@ -159,6 +107,7 @@ public class MapActivity extends AppCompatActivity {
         double lon = location.getLongitude();
 
         Log.d(TAG, "Location received: " + lat + ", " + lon);
+        currentLocation = location;
 
         // Update coordinates display
         txtCoordinates.setText(String.format(Locale.getDefault(), "Lat: %.4f, Lon: %.4f", lat, lon));
@@ -178,8 +127,7 @@ public class MapActivity extends AppCompatActivity {
         addMarkerAtLocation(lat, lon);
 
         // Fetch weather and AQI data
-        fetchWeatherData(lat, lon);
-        fetchAqiData(lat, lon);
+        weatherRepository.load(lat, lon, this::renderSnapshot);
     }
 
     private void addMarkerAtLocation(double lat, double lon) {
@@ -208,47 +156,32 @@ public class MapActivity extends AppCompatActivity {
     }
 
     private void getAddressFromLocation(double lat, double lon) {
-        Geocoder geocoder = new Geocoder(this, Locale.getDefault());
-        try {
-            List<Address> addresses = geocoder.getFromLocation(lat, lon, 1);
-            if (addresses != null && !addresses.isEmpty()) {
-                Address address = addresses.get(0);
-                String locationName = "";
-                
-                if (address.getLocality() != null) {
-                    locationName = address.getLocality();
-                } else if (address.getSubAdminArea() != null) {
-                    locationName = address.getSubAdminArea();
-                } else if (address.getAdminArea() != null) {
-                    locationName = address.getAdminArea();
-                }
-                
-                if (address.getCountryName() != null && !locationName.isEmpty()) {
-                    locationName += ", " + address.getCountryName();
-                }
-                
-                if (!locationName.isEmpty()) {
-                    txtLocationName.setText(locationName);
-                } else {
-                    txtLocationName.setText("Unknown Location");
-                }
+        // Resolved off the main thread; repeat visits come from the cache
+        ReverseGeocoder.getInstance(this).lookup(lat, lon, placeName -> {
+            if (placeName != null) {
+                txtLocationName.setText(placeName);
             } else {
                 txtLocationName.setText("Unknown Location");
             }
-        } catch (IOException e) {
-            Log.e(TAG, "Geocoder error: " + e.getMessage());
-            txtLocationName.setText("Location unavailable");
-        }
+        });
     }
 
-    private void stopLocationUpdates() {
-        if (fusedLocationClient != null && locationCallback != null) {
-            fusedLocationClient.removeLocationUpdates(locationCallback);
+    private void saveToWatchlist() {
+        if (currentLocation == null) {
+            Toast.makeText(this, "Location not available yet", Toast.LENGTH_SHORT).show();
+            return;
         }
-    }
 
-    private boolean hasLocationPermission() {
-        return ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED;
+        String name = txtLocationName.getText().toString();
+        SavedLocation location = new SavedLocation(name, currentLocation.getLatitude(), currentLocation.getLongitude());
+        WatchlistRepository.getInstance(this).addLocation(location, locations -> {
+            if (location.getId() != -1) {
+                Toast.makeText(this, name + " added to watchlist", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, "Watchlist is full (" + WatchlistRepository.MAX_LOCATIONS + " places)",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void requestLocationPermission() {
@@ -270,7 +203,6 @@ public class MapActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        stopLocationUpdates();
     }
 
     @Override
@@ -283,69 +215,22 @@ public class MapActivity extends AppCompatActivity {
         super.onDestroy();
     }
 
-    private void fetchWeatherData(double latitude, double longitude) {
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl("https://api.openweathermap.org/data/2.5/")
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-
-        ApiService apiService = retrofit.create(ApiService.class);
-        Call<WeatherResponse> call = apiService.getWeather(latitude, longitude, openWeatherMapApiKey, "metric");
-
-        call.enqueue(new Callback<WeatherResponse>() {
-            @Override
-            public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    WeatherResponse weatherResponse = response.body();
-                    if (weatherResponse.getMain() != null) {
-                        double temp = weatherResponse.getMain().getTemp();
-                        temperatureTextView.setText(Math.round(temp) + "°C");
-                    }
-                } else {
-                    Log.e(TAG, "Weather API error: " + response.code());
-                    temperatureTextView.setText("--");
-                }
-            }
-
-            @Override
-            public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                Log.e(TAG, "Weather API failure: " + t.getMessage());
-                temperatureTextView.setText("--");
-            }
-        });
-    }
-
-    private void fetchAqiData(double latitude, double longitude) {
-        Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl("https://api.openweathermap.org/data/2.5/")
-                .addConverterFactory(GsonConverterFactory.create())
-                .build();
-
-        ApiService apiService = retrofit.create(ApiService.class);
-        Call<AqiResponse> call = apiService.getAqi(latitude, longitude, openWeatherMapApiKey);
-
-        call.enqueue(new Callback<AqiResponse>() {
-            @Override
-            public void onResponse(Call<AqiResponse> call, Response<AqiResponse> response) {
-                if (response.isSuccessful() && response.body() != null) {
-                    AqiResponse aqiResponse = response.body();
-                    if (aqiResponse.getList() != null && !aqiResponse.getList().isEmpty()) {
-                        int aqi = aqiResponse.getList().get(0).getMain().getAqi();
-                        String aqiStatus = getAqiStatusText(aqi);
-                        aqiTextView.setText(aqi + " (" + aqiStatus + ")");
-                    }
-                } else {
-                    Log.e(TAG, "AQI API error: " + response.code());
-                    aqiTextView.setText("--");
-                }
-            }
+    /**
+     * Render temperature and AQI from one snapshot
+     */
+    private void renderSnapshot(WeatherSnapshot snapshot) {
+        if (snapshot.hasTemperature()) {
+            temperatureTextView.setText(Math.round(snapshot.getTemperature()) + "°C");
+        } else {
+            temperatureTextView.setText("--");
+        }
 
-            @Override
-            public void onFailure(Call<AqiResponse> call, Throwable t) {
-                Log.e(TAG, "AQI API failure: " + t.getMessage());
-                aqiTextView.setText("--");
-            }
-        });
+        if (snapshot.hasAqi()) {
+            int aqi = snapshot.getAqi();
+            aqiTextView.setText(aqi + " (" + getAqiStatusText(aqi) + ")");
+        } else {
+            aqiTextView.setText("--");
+        }
     }
 
     private String getAqiStatusText(int aqi) {
@@ -364,7 +249,7 @@ public class MapActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == LOCATION_PERMISSION_REQUEST_CODE) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                getUserLocation();
+                locationEngine.onPermissionGranted();
             } else {
                 Toast.makeText(this, "Location permission is required for map features", Toast.LENGTH_SHORT).show();
             }
@@ -0,0 +1,271 @@
+package com.example.teragaurd;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+import retrofit2.http.GET;
+
+/**
+ * In-process network timing instrumentation for ApiService
+ * Records per-phase timings (DNS, connect, TLS, time to first byte, total and
+ * Gson decode) plus payload sizes into one histogram per endpoint and phase.
+ * Calls answered by WeatherResponseCache within their TTL are timed under
+ * PHASE_CACHED instead of PHASE_TOTAL, so hits do not pull network latency down.
+ * Also holds the dashboard's time-to-first-weather under ENDPOINT_DASHBOARD.
+ * Timings are in microseconds, sizes in bytes
+ */
+public class NetworkMetrics {
+
+    // Phase names
+    public static final String PHASE_DNS = "dns";
+    public static final String PHASE_CONNECT = "connect";
+    public static final String PHASE_TLS = "tls";
+    public static final String PHASE_TTFB = "ttfb";
+    public static final String PHASE_TOTAL = "total";
+    public static final String PHASE_CACHED = "cached";
+    public static final String PHASE_DECODE = "decode";
+    public static final String PHASE_BYTES = "bytes";
+    public static final String PHASE_FAILED = "failed";
+
+    // Time from dashboard creation to the first stored / first live snapshot on screen
+    public static final String ENDPOINT_DASHBOARD = "dashboard";
+    public static final String PHASE_FIRST_STORED = "first_stored";
+    public static final String PHASE_FIRST_LIVE = "first_live";
+
+    // endpoint -> phase -> histogram, sorted for a stable report
+    private final Map<String, Map<String, LatencyHistogram>> histograms = new TreeMap<>();
+    // Calls between callStart and callEnd / callFailed, so the interceptor can mark cache hits
+    private final Map<Call, CallTimer> activeCalls = new HashMap<>();
+
+    /**
+     * Record one sample
+     * @param endpoint Endpoint name, e.g. "weather"
+     * @param phase One of the PHASE_ constants
+     * @param value Duration in microseconds or size in bytes
+     */
+    public void record(String endpoint, String phase, long value) {
+        histogramFor(endpoint, phase).record(value);
+    }
+
+    /**
+     * Get the histogram for an endpoint and phase, creating it if needed
+     */
+    public LatencyHistogram histogramFor(String endpoint, String phase) {
+        synchronized (histograms) {
+            Map<String, LatencyHistogram> phases = histograms.get(endpoint);
+            if (phases == null) {
+                phases = new TreeMap<>();
+                histograms.put(endpoint, phases);
+            }
+            LatencyHistogram histogram = phases.get(phase);
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                phases.put(phase, histogram);
+            }
+            return histogram;
+        }
+    }
+
+    public void reset() {
+        synchronized (histograms) {
+            histograms.clear();
+        }
+    }
+
+    /**
+     * Build a plain-text report of every histogram
+     */
+    public String dump() {
+        StringBuilder report = new StringBuilder();
+        synchronized (histograms) {
+            if (histograms.isEmpty()) {
+                return "No network samples recorded yet\n";
+            }
+            for (Map.Entry<String, Map<String, LatencyHistogram>> endpoint : histograms.entrySet()) {
+                report.append(endpoint.getKey()).append('\n');
+                for (Map.Entry<String, LatencyHistogram> phase : endpoint.getValue().entrySet()) {
+                    String unit = PHASE_BYTES.equals(phase.getKey()) ? "B " : "us";
+                    report.append(String.format(Locale.US, "  %-8s %s %s%n",
+                            phase.getKey(), unit, phase.getValue().summary()));
+                }
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Factory to install on the OkHttpClient
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new CallTimer(endpointOf(call));
+    }
+
+    /**
+     * Interceptor that marks calls answered as cache hits; add it before WeatherResponseCache
+     */
+    public Interceptor cacheStatusInterceptor() {
+        return chain -> {
+            okhttp3.Response response = chain.proceed(chain.request());
+            if (WeatherResponseCache.isHit(response)) {
+                CallTimer timer;
+                synchronized (activeCalls) {
+                    timer = activeCalls.get(chain.call());
+                }
+                if (timer != null) {
+                    timer.cacheHit = true;
+                }
+            }
+            return response;
+        };
+    }
+
+    /**
+     * Converter factory that times the next (Gson) converter; add it before Gson
+     */
+    public Converter.Factory timedConverterFactory() {
+        return new Converter.Factory() {
+            @Override
+            public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                                    Retrofit retrofit) {
+                Converter<ResponseBody, ?> delegate = retrofit.nextResponseBodyConverter(this, type, annotations);
+                String endpoint = endpointOf(annotations);
+                return (Converter<ResponseBody, Object>) body -> {
+                    long start = System.nanoTime();
+                    try {
+                        return delegate.convert(body);
+                    } finally {
+                        record(endpoint, PHASE_DECODE, (System.nanoTime() - start) / 1000);
+                    }
+                };
+            }
+        };
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static String endpointOf(Call call) {
+        List<String> segments = call.request().url().pathSegments();
+        return segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+    }
+
+    private static String endpointOf(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return ((GET) annotation).value();
+            }
+        }
+        return "unknown";
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    /**
+     * Per-call listener; OkHttp drives a single call's events sequentially
+     */
+    private class CallTimer extends EventListener {
+        private final String endpoint;
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+        // Written by cacheStatusInterceptor(), which returns before callEnd fires
+        private volatile boolean cacheHit;
+
+        CallTimer(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            synchronized (activeCalls) {
+                activeCalls.put(call, this);
+            }
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            record(endpoint, PHASE_DNS, micros(dnsStart));
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            record(endpoint, PHASE_TLS, micros(secureConnectStart));
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, Protocol protocol) {
+            record(endpoint, PHASE_CONNECT, micros(connectStart));
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (requestStart != 0) {
+                record(endpoint, PHASE_TTFB, micros(requestStart));
+            }
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            record(endpoint, PHASE_BYTES, byteCount);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            finish(call);
+            record(endpoint, cacheHit ? PHASE_CACHED : PHASE_TOTAL, micros(callStart));
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            finish(call);
+            record(endpoint, PHASE_FAILED, micros(callStart));
+        }
+
+        private void finish(Call call) {
+            synchronized (activeCalls) {
+                activeCalls.remove(call);
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * App-scoped network module for teraGaurd
+ * Provides a single tuned OkHttpClient and ApiService shared by every screen,
+ * so connections (and HTTP/2 streams) to OpenWeatherMap are reused instead of
+ * paying a new TLS handshake per request
+ */
+public class NetworkModule {
+
+    private static final String TAG = "NetworkModule";
+
+    public static final String BASE_URL = "https://api.openweathermap.org/data/2.5/";
+    // IMPORTANT: Replace with your actual OpenWeatherMap API key
+    public static final String API_KEY = "72aa5ebf5045980623cd8ff3e86a6e01";
+
+    // Timeouts
+    private static final long CONNECT_TIMEOUT_SECONDS = 10;
+    private static final long READ_TIMEOUT_SECONDS = 15;
+    private static final long WRITE_TIMEOUT_SECONDS = 15;
+    private static final long CALL_TIMEOUT_SECONDS = 30;
+
+    // Connection pool - keep a few idle connections warm between screens
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // Response cache - bounded, with per-endpoint TTLs
+    private static final String CACHE_DIRECTORY = "weather-http";
+    private static final long CACHE_MAX_BYTES = 2 * 1024 * 1024;
+    private static final long WEATHER_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long AQI_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long FORECAST_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * Notified on the main thread when the device regains a network after losing it
+     */
+    public interface ConnectivityListener {
+        void onConnectivityRestored();
+    }
+
+    // Singleton instance
+    private static NetworkModule instance;
+
+    private final WeatherResponseCache responseCache;
+    private final ResilienceInterceptor resilienceInterceptor;
+    private final NetworkMetrics networkMetrics;
+    private final List<ConnectivityListener> connectivityListeners = new CopyOnWriteArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean networkLost = false;
+    private final OkHttpClient okHttpClient;
+    private final ApiService apiService;
+    private final RequestCoalescer requestCoalescer;
+
+    /**
+     * Get singleton instance of NetworkModule
+     * @param context Application context
+     * @return NetworkModule instance
+     */
+    public static synchronized NetworkModule getInstance(Context context) {
+        if (instance == null) {
+            instance = new NetworkModule(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private NetworkModule(Context context) {
+        responseCache = new WeatherResponseCache(
+                new File(context.getCacheDir(), CACHE_DIRECTORY),
+                CACHE_MAX_BYTES,
+                LocationCell.DEFAULT_PRECISION)
+                .setTtl("weather", WEATHER_TTL_MILLIS)
+                .setTtl("air_pollution", AQI_TTL_MILLIS)
+                .setTtl("forecast", FORECAST_TTL_MILLIS);
+
+        resilienceInterceptor = new ResilienceInterceptor();
+        networkMetrics = new NetworkMetrics();
+
+        okHttpClient = newClientBuilder()
+                .eventListenerFactory(networkMetrics.eventListenerFactory())
+                // Outermost, so it sees the cache's status header and keeps hits out of the totals
+                .addInterceptor(networkMetrics.cacheStatusInterceptor())
+                // Cache runs first so it can serve stale data when retries give up
+                .addInterceptor(responseCache)
+                .addInterceptor(resilienceInterceptor)
+                .build();
+
+        // Hand-written streaming adapters: no reflection on first use, and
+        // parsing is limited to the fields the app reads
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .registerTypeAdapter(AqiResponse.class, new AqiResponseAdapter())
+                .registerTypeAdapter(ForecastResponse.class, new ForecastResponseAdapter())
+                .create();
+
+        Retrofit retrofit = new Retrofit.Builder()
+                .baseUrl(BASE_URL)
+                .client(okHttpClient)
+                // Must come before Gson so it can time the Gson converter it delegates to
+                .addConverterFactory(networkMetrics.timedConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build();
+
+        apiService = retrofit.create(ApiService.class);
+        requestCoalescer = new RequestCoalescer(LocationCell.DEFAULT_PRECISION);
+
+        registerConnectivityCallback(context);
+    }
+
+    /**
+     * Client settings shared by every call: timeouts, the connection pool and protocols
+     * Package-private so tests can run the same tuning against a local server
+     * @return Builder without interceptors or listeners
+     */
+    static OkHttpClient.Builder newClientBuilder() {
+        return new OkHttpClient.Builder()
+                .connectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .callTimeout(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true);
+    }
+
+    /**
+     * Watch the default network so failed endpoints are retried as soon as it returns
+     */
+    private void registerConnectivityCallback(Context context) {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) return;
+
+        try {
+            connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+                @Override
+                public void onAvailable(Network network) {
+                    if (!networkLost) return;
+                    networkLost = false;
+                    Log.d(TAG, "Connectivity restored, resetting circuit breakers");
+                    resilienceInterceptor.resetAll();
+                    mainHandler.post(() -> {
+                        for (ConnectivityListener listener : connectivityListeners) {
+                            listener.onConnectivityRestored();
+                        }
+                    });
+                }
+
+                @Override
+                public void onLost(Network network) {
+                    networkLost = true;
+                }
+            });
+        } catch (SecurityException e) {
+            Log.e(TAG, "Cannot watch connectivity: " + e.getMessage());
+        }
+    }
+
+    public void addConnectivityListener(ConnectivityListener listener) {
+        connectivityListeners.add(listener);
+    }
+
+    public void removeConnectivityListener(ConnectivityListener listener) {
+        connectivityListeners.remove(listener);
+    }
+
+    /**
+     * Get the shared OkHttpClient
+     * @return OkHttpClient used by every ApiService call
+     */
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * Get the response cache, e.g. to read its hit/miss/eviction counters
+     * @return WeatherResponseCache installed on the shared client
+     */
+    public WeatherResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Get the retry / circuit breaker interceptor, e.g. to read breaker states
+     * @return ResilienceInterceptor installed on the shared client
+     */
+    public ResilienceInterceptor getResilienceInterceptor() {
+        return resilienceInterceptor;
+    }
+
+    /**
+     * Get the per-endpoint timing histograms
+     * @return NetworkMetrics recording every call on the shared client
+     */
+    public NetworkMetrics getNetworkMetrics() {
+        return networkMetrics;
+    }
+
+    /**
+     * Get a text report of timings, cache counters and breaker states
+     * @return Multi-line report for the debug screen and logs
+     */
+    public String dumpStats() {
+        return networkMetrics.dump()
+                + "\ncache    " + responseCache.getStats()
+                + "\nbreakers " + resilienceInterceptor.getStats() + "\n";
+    }
+
+    /**
+     * Get the shared ApiService
+     * @return ApiService backed by the shared OkHttpClient
+     */
+    public ApiService getApiService() {
+        return apiService;
+    }
+
+    /**
+     * Get the request coalescer shared by every screen
+     * @return RequestCoalescer that deduplicates identical in-flight calls
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+}
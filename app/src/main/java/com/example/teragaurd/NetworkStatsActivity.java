@@ -0,0 +1,53 @@
+package com.example.teragaurd;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.TextView;
+
+import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+/**
+ * Hidden debug screen (long-press the temperature on the dashboard)
+ * Shows per-endpoint network timings, cache counters and breaker states
+ */
+public class NetworkStatsActivity extends AppCompatActivity {
+
+    private static final String TAG = "NetworkStats";
+
+    private TextView txtStats;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        EdgeToEdge.enable(this);
+        setContentView(R.layout.activity_network_stats);
+        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+            return insets;
+        });
+
+        txtStats = findViewById(R.id.txtStats);
+
+        findViewById(R.id.btnBack).setOnClickListener(v -> finish());
+        findViewById(R.id.btnRefresh).setOnClickListener(v -> showStats());
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showStats();
+    }
+
+    private void showStats() {
+        String report = NetworkModule.getInstance(this).dumpStats()
+                + "refresh  " + WeatherRepository.getInstance(this).getRefreshGate().getStats() + "\n";
+        txtStats.setText(report);
+        // Also log it so it can be pulled with adb logcat -s NetworkStats
+        Log.i(TAG, "\n" + report);
+    }
+}
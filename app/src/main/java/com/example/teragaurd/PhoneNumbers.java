@@ -0,0 +1,50 @@
+package com.example.teragaurd;
+
+/**
+ * Utility class for comparing phone numbers by their digits
+ * Two numbers are treated as the same contact when one ends with the other,
+ * so "+91 98450-12345" matches "9845012345". Reversing the digits turns that
+ * suffix test into a prefix test, which an index can answer
+ */
+public class PhoneNumbers {
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Keep only the digits of a phone number
+     * @param phoneNumber Number as typed, picked or logged
+     * @return Digits in order, or an empty string
+     */
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) return "";
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Digits of a phone number, last digit first
+     * @param phoneNumber Number as typed, picked or logged
+     * @return Reversed digits, or an empty string
+     */
+    public static String reversed(String phoneNumber) {
+        return new StringBuilder(normalize(phoneNumber)).reverse().toString();
+    }
+
+    /**
+     * Smallest string greater than every string starting with the given digits
+     * @param reversedDigits Non-empty prefix of digits
+     * @return Exclusive upper bound for a prefix range query
+     */
+    public static String prefixUpperBound(String reversedDigits) {
+        int last = reversedDigits.length() - 1;
+        // '9' + 1 is ':', which sorts after every digit
+        return reversedDigits.substring(0, last) + (char) (reversedDigits.charAt(last) + 1);
+    }
+}
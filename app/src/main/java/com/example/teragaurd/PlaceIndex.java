@@ -0,0 +1,177 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Offline nearest-place lookup over the bundled places.idx asset
+ * The asset is stored uncompressed and memory-mapped, so the index costs no
+ * heap and pages in on demand. Nodes form an implicit k-d tree (see
+ * tools/placeindex/PlaceIndexBuilder.java for the layout); a query visits
+ * O(log n) nodes. Distances ignore the antimeridian, which only matters for
+ * a handful of Pacific islands. Safe to query from several threads
+ */
+public class PlaceIndex {
+
+    public static final String ASSET_NAME = "places.idx";
+
+    private static final int MAGIC = 0x54475049; // "TGPI"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int NODE_BYTES = 12;
+
+    /**
+     * Nearest place to a query point
+     */
+    public static final class Place {
+        private final String name;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceMeters;
+
+        Place(String name, double latitude, double longitude, double distanceMeters) {
+            this.name = name;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceMeters = distanceMeters;
+        }
+
+        /**
+         * "Name, Country"
+         */
+        public String getName() { return name; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getDistanceMeters() { return distanceMeters; }
+    }
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int namesOffset;
+
+    /**
+     * Map the bundled index; the asset must not be compressed (see noCompress in build.gradle.kts)
+     * @param context Context for the asset manager
+     * @return Index backed by a read-only mapping
+     * @throws IOException if the asset is missing or malformed
+     */
+    public static PlaceIndex open(Context context) throws IOException {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET_NAME);
+             FileInputStream input = descriptor.createInputStream()) {
+            // The mapping stays valid after the channel is closed
+            ByteBuffer mapped = input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength());
+            return new PlaceIndex(mapped);
+        }
+    }
+
+    /**
+     * @param buffer Index bytes, e.g. a mapped file; only absolute reads are used
+     * @throws IOException if the header is not a supported index
+     */
+    PlaceIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a place index");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported place index version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.namesOffset = buffer.getInt(12);
+        if (count < 0 || namesOffset != HEADER_BYTES + count * NODE_BYTES || namesOffset > buffer.capacity()) {
+            throw new IOException("Corrupt place index header");
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Find the nearest place
+     * @param lat Latitude
+     * @param lon Longitude
+     * @return Nearest place, or null if the index is empty
+     */
+    public Place nearest(double lat, double lon) {
+        if (count == 0) return null;
+
+        Search search = new Search(lat, lon);
+        search(search, 0, count, 0);
+
+        int node = HEADER_BYTES + search.best * NODE_BYTES;
+        double placeLat = buffer.getFloat(node);
+        double placeLon = buffer.getFloat(node + 4);
+        return new Place(readName(buffer.getInt(node + 8)), placeLat, placeLon,
+                DisplacementTracker.distanceMeters(lat, lon, placeLat, placeLon));
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * Query state; squared distances are in degrees with longitude scaled by
+     * cos(query latitude), which keeps axis-aligned pruning exact
+     */
+    private static final class Search {
+        final double lat;
+        final double lon;
+        final double lonScale;
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+
+        Search(double lat, double lon) {
+            this.lat = lat;
+            this.lon = lon;
+            this.lonScale = Math.cos(Math.toRadians(lat));
+        }
+    }
+
+    private void search(Search search, int lo, int hi, int depth) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int node = HEADER_BYTES + mid * NODE_BYTES;
+        float nodeLat = buffer.getFloat(node);
+        float nodeLon = buffer.getFloat(node + 4);
+
+        double dLat = search.lat - nodeLat;
+        double dLon = (search.lon - nodeLon) * search.lonScale;
+        double distance = dLat * dLat + dLon * dLon;
+        if (distance < search.bestDistance) {
+            search.bestDistance = distance;
+            search.best = mid;
+        }
+
+        // Descend the side holding the query first, then the other only if it can be closer
+        double split = depth % 2 == 0 ? dLat : dLon;
+        boolean lowerFirst = split < 0;
+        if (lowerFirst) {
+            search(search, lo, mid, depth + 1);
+        } else {
+            search(search, mid + 1, hi, depth + 1);
+        }
+        if (split * split < search.bestDistance) {
+            if (lowerFirst) {
+                search(search, mid + 1, hi, depth + 1);
+            } else {
+                search(search, lo, mid, depth + 1);
+            }
+        }
+    }
+
+    private String readName(int nameOffset) {
+        int position = namesOffset + nameOffset;
+        int length = buffer.getShort(position) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
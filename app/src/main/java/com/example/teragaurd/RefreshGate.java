@@ -0,0 +1,78 @@
+package com.example.teragaurd;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a new location fix is worth a network refresh
+ * A fix close to where the last complete snapshot was fetched, while that
+ * snapshot is still within its TTL, is served from memory instead of
+ * re-issuing the weather, AQI and forecast calls
+ */
+public class RefreshGate {
+
+    // About one weather cell; closer fixes get the same answer from the API
+    public static final float DEFAULT_DISTANCE_METERS = 1000f;
+
+    // Matches the shortest endpoint TTL in NetworkModule (current weather)
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final float distanceMeters;
+    private final long ttlMillis;
+
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong passedCount = new AtomicLong();
+
+    public RefreshGate() {
+        this(DEFAULT_DISTANCE_METERS, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * @param distanceMeters Displacement that always triggers a refresh
+     * @param ttlMillis Age of the oldest field that always triggers a refresh
+     */
+    public RefreshGate(float distanceMeters, long ttlMillis) {
+        this.distanceMeters = distanceMeters;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Check whether a fix needs network work, counting the outcome
+     * @param last Last snapshot fetched, or null if none
+     * @param lat Latitude of the new fix
+     * @param lon Longitude of the new fix
+     * @param now Current wall-clock time in milliseconds
+     * @return true to fetch, false to serve the last snapshot
+     */
+    public boolean shouldRefresh(WeatherSnapshot last, double lat, double lon, long now) {
+        boolean refresh = last == null
+                || !last.hasTemperature() || !last.hasAqi() || !last.hasForecast()
+                || now - oldestFieldTime(last) > ttlMillis
+                || DisplacementTracker.distanceMeters(last.getLatitude(), last.getLongitude(), lat, lon)
+                        > distanceMeters;
+        if (refresh) {
+            passedCount.incrementAndGet();
+        } else {
+            skippedCount.incrementAndGet();
+        }
+        return refresh;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    public long getPassedCount() {
+        return passedCount.get();
+    }
+
+    public String getStats() {
+        return String.format(Locale.US, "fetched=%d skipped=%d", passedCount.get(), skippedCount.get());
+    }
+
+    private static long oldestFieldTime(WeatherSnapshot snapshot) {
+        return Math.min(snapshot.getTemperatureTime(),
+                Math.min(snapshot.getAqiTime(), snapshot.getForecastTime()));
+    }
+}
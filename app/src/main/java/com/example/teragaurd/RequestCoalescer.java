@@ -0,0 +1,178 @@
+package com.example.teragaurd;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Coalesces identical in-flight ApiService calls
+ * Concurrent requests for the same endpoint and location cell share a single
+ * network call; the result is fanned out to every subscriber's callback
+ */
+public class RequestCoalescer {
+
+    private static final String TAG = "RequestCoalescer";
+
+    private final int precision;
+    private final Map<String, List<Subscriber<?>>> inFlight = new HashMap<>();
+
+    // Statistics
+    private final AtomicLong upstreamCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * @param precision Decimal places kept when rounding lat/lon into the request key
+     */
+    public RequestCoalescer(int precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Enqueue a call, or attach to an identical call that is already in flight
+     * When attached, the given call is only executed if the call it joined is
+     * canceled; the caller that canceled is the only one to see the cancellation.
+     * A joined caller that cancels its own call gets onFailure, as Retrofit does
+     * @param call The call to run
+     * @param callback Callback to receive the (possibly shared) result
+     */
+    public <T> void enqueue(Call<T> call, Callback<T> callback) {
+        String key = WeatherResponseCache.keyFor(
+                WeatherResponseCache.quantize(call.request().url(), precision));
+
+        synchronized (inFlight) {
+            List<Subscriber<?>> subscribers = inFlight.get(key);
+            if (subscribers != null) {
+                subscribers.add(new Subscriber<>(call, callback));
+                coalescedCount.incrementAndGet();
+                Log.d(TAG, "Joined in-flight " + call.request().url().encodedPath());
+                return;
+            }
+            subscribers = new ArrayList<>();
+            subscribers.add(new Subscriber<>(call, callback));
+            inFlight.put(key, subscribers);
+            upstreamCount.incrementAndGet();
+        }
+        start(key, call);
+    }
+
+    /**
+     * Number of calls that actually went upstream
+     */
+    public long getUpstreamCount() {
+        return upstreamCount.get();
+    }
+
+    /**
+     * Number of calls that were served by joining an in-flight call
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * A caller waiting on a key, with the call it would have made
+     */
+    private static final class Subscriber<T> {
+        final Call<T> call;
+        final Callback<T> callback;
+
+        Subscriber(Call<T> call, Callback<T> callback) {
+            this.call = call;
+            this.callback = callback;
+        }
+    }
+
+    /**
+     * Run the upstream call for a key and fan its result out
+     */
+    private <T> void start(String key, Call<T> upstream) {
+        upstream.enqueue(new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                for (Subscriber<T> subscriber : RequestCoalescer.this.<T>complete(key)) {
+                    if (subscriber.call.isCanceled()) {
+                        subscriber.callback.onFailure(subscriber.call, new IOException("Canceled"));
+                    } else {
+                        subscriber.callback.onResponse(subscriber.call, response);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (call.isCanceled()) {
+                    handOver(key, call, t);
+                    return;
+                }
+                for (Subscriber<T> subscriber : RequestCoalescer.this.<T>complete(key)) {
+                    subscriber.callback.onFailure(subscriber.call,
+                            subscriber.call.isCanceled() ? new IOException("Canceled") : t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fail only the caller whose call was canceled and let the next
+     * subscriber's own call go upstream for the rest
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void handOver(String key, Call<T> canceled, Throwable t) {
+        Subscriber<T> leader = null;
+        Subscriber<T> next = null;
+        synchronized (inFlight) {
+            List<Subscriber<?>> subscribers = inFlight.get(key);
+            if (subscribers != null) {
+                for (int i = 0; i < subscribers.size(); i++) {
+                    if (subscribers.get(i).call == canceled) {
+                        leader = (Subscriber<T>) subscribers.remove(i);
+                        break;
+                    }
+                }
+                if (subscribers.isEmpty()) {
+                    inFlight.remove(key);
+                } else {
+                    next = (Subscriber<T>) subscribers.get(0);
+                    upstreamCount.incrementAndGet();
+                }
+            }
+        }
+
+        if (leader != null) {
+            leader.callback.onFailure(canceled, t);
+        }
+        if (next != null) {
+            Log.d(TAG, "Leader canceled, handing over " + next.call.request().url().encodedPath());
+            start(key, next.call);
+        }
+    }
+
+    /**
+     * Remove the key from the in-flight table and return its subscribers
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<Subscriber<T>> complete(String key) {
+        List<Subscriber<?>> subscribers;
+        synchronized (inFlight) {
+            subscribers = inFlight.remove(key);
+        }
+        List<Subscriber<T>> typed = new ArrayList<>();
+        if (subscribers != null) {
+            for (Subscriber<?> subscriber : subscribers) {
+                typed.add((Subscriber<T>) subscriber);
+            }
+        }
+        return typed;
+    }
+}
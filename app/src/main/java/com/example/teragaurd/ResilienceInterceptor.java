@@ -0,0 +1,196 @@
+package com.example.teragaurd;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * OkHttp interceptor adding retries and per-endpoint circuit breaking
+ * Transient failures (I/O errors, 429 and 5xx) are retried with exponential
+ * backoff and full jitter. Repeated failures open the endpoint's circuit so
+ * calls fail fast and the response cache can serve stale data instead
+ */
+public class ResilienceInterceptor implements Interceptor {
+
+    private static final String TAG = "ResilienceInterceptor";
+
+    // Retry policy
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 4000;
+
+    // Circuit breaker policy
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long BASE_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_OPEN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Thrown when a call is rejected because its endpoint's circuit is open
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String endpoint) {
+            super("Circuit open for " + endpoint);
+        }
+    }
+
+    private final Map<String, CircuitBreaker> breakers = new HashMap<>();
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long baseOpenMillis;
+    private final long maxOpenMillis;
+
+    public ResilienceInterceptor() {
+        this(BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS, BASE_OPEN_MILLIS, MAX_OPEN_MILLIS);
+    }
+
+    /**
+     * Use specific backoff and open periods, for tests
+     */
+    ResilienceInterceptor(long baseBackoffMillis, long maxBackoffMillis, long baseOpenMillis, long maxOpenMillis) {
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.baseOpenMillis = baseOpenMillis;
+        this.maxOpenMillis = maxOpenMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = endpointOf(request);
+        CircuitBreaker breaker = breakerFor(endpoint);
+
+        boolean probe;
+        synchronized (breaker) {
+            if (!breaker.allowRequest(System.currentTimeMillis())) {
+                throw new CircuitOpenException(endpoint);
+            }
+            probe = breaker.getState() == CircuitBreaker.State.HALF_OPEN;
+        }
+
+        // Every exit must settle the probe, or the breaker stays half-open and rejects all calls
+        boolean settled = false;
+        try {
+            IOException lastError = null;
+            Response response = null;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    sleep(backoff(attempt));
+                    if (chain.call().isCanceled()) {
+                        throw new IOException("Canceled");
+                    }
+                }
+
+                if (response != null) {
+                    response.close();
+                    response = null;
+                }
+
+                try {
+                    response = chain.proceed(request);
+                    if (!isRetryable(response.code())) {
+                        // Any non-transient answer (even a 4xx) shows the endpoint is up
+                        breaker.onSuccess();
+                        settled = true;
+                        return response;
+                    }
+                    Log.w(TAG, endpoint + " attempt " + (attempt + 1) + " got HTTP " + response.code());
+                } catch (IOException e) {
+                    if (chain.call().isCanceled()) {
+                        // Says nothing about the endpoint
+                        throw e;
+                    }
+                    lastError = e;
+                    Log.w(TAG, endpoint + " attempt " + (attempt + 1) + " failed: " + e.getMessage());
+                }
+            }
+
+            breaker.onFailure(System.currentTimeMillis());
+            settled = true;
+            if (response != null) {
+                return response;
+            }
+            throw lastError;
+        } finally {
+            if (!settled && probe) {
+                // Canceled, interrupted or crashed: let the next call probe again
+                breaker.onAbandoned();
+            }
+        }
+    }
+
+    /**
+     * Let every endpoint try again immediately, e.g. after connectivity returns
+     */
+    public void resetAll() {
+        synchronized (breakers) {
+            for (CircuitBreaker breaker : breakers.values()) {
+                breaker.reset();
+            }
+        }
+    }
+
+    /**
+     * Get a one-line summary of breaker states for logs and debug output
+     */
+    public String getStats() {
+        StringBuilder stats = new StringBuilder();
+        synchronized (breakers) {
+            for (Map.Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+                if (stats.length() > 0) stats.append(' ');
+                stats.append(entry.getKey()).append('=').append(entry.getValue().getState());
+            }
+        }
+        return stats.toString();
+    }
+
+    // ==================== INTERNALS ====================
+
+    private CircuitBreaker breakerFor(String endpoint) {
+        synchronized (breakers) {
+            CircuitBreaker breaker = breakers.get(endpoint);
+            if (breaker == null) {
+                breaker = new CircuitBreaker(FAILURE_THRESHOLD, baseOpenMillis, maxOpenMillis);
+                breakers.put(endpoint, breaker);
+            }
+            return breaker;
+        }
+    }
+
+    private static String endpointOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        return segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * Full jitter: a random delay between 0 and the exponential ceiling
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << (attempt - 1));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during backoff");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns coordinates into a display name such as "Bengaluru, India"
+ * Lookups go through an in-memory LRU, then the geocode_cache table, and only
+ * then the platform Geocoder, which blocks and may hit the network. Keys are
+ * location cells, so nearby fixes share one entry; concurrent lookups for the
+ * same cell share one Geocoder call. When Geocoder has no answer (typically
+ * no connectivity) the bundled PlaceIndex names the nearest city; those
+ * answers are not cached so the next online lookup gets the precise name.
+ * Geocoder runs on the network pool and the cache table on the disk thread;
+ * listeners are called on the main thread
+ */
+public class ReverseGeocoder {
+
+    private static final String TAG = "ReverseGeocoder";
+
+    // Place names are city-level, so weather-sized cells are precise enough
+    private static final int CELL_PRECISION = LocationCell.DEFAULT_PRECISION;
+    private static final int MEMORY_ENTRIES = 64;
+
+    // Beyond this the nearest bundled city is too far away to be a useful label
+    private static final double MAX_OFFLINE_DISTANCE_METERS = 100000;
+
+    /**
+     * Receives a place name on the main thread
+     */
+    public interface Listener {
+        /**
+         * @param placeName Display name, or null if the location could not be resolved
+         */
+        void onPlaceName(String placeName);
+    }
+
+    // Singleton instance
+    private static ReverseGeocoder instance;
+
+    private final Context context;
+    private final GeocodeDAO geocodeDAO;
+    private final AppExecutors executors;
+    private final LruCache<String, String> memoryCache = new LruCache<>(MEMORY_ENTRIES);
+    private PlaceIndex placeIndex; // Opened on first offline fallback, guarded by this
+
+    // Cell -> listeners waiting on a lookup; only touched on the main thread
+    private final Map<String, List<Listener>> inFlight = new HashMap<>();
+
+    /**
+     * Get singleton instance of ReverseGeocoder
+     * @param context Application context
+     * @return ReverseGeocoder instance
+     */
+    public static synchronized ReverseGeocoder getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReverseGeocoder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private ReverseGeocoder(Context context) {
+        this.context = context;
+        executors = AppExecutors.getInstance();
+        geocodeDAO = new GeocodeDAO(context);
+        executors.diskIO().execute(() -> {
+            geocodeDAO.open();
+            int deleted = geocodeDAO.trim();
+            if (deleted > 0) {
+                Log.d(TAG, "Trimmed " + deleted + " geocode cache rows");
+            }
+        });
+    }
+
+    /**
+     * Resolve a place name; must be called on the main thread
+     * A name already in memory is delivered before this method returns
+     * @param lat Latitude
+     * @param lon Longitude
+     * @param listener Listener to receive the name on the main thread
+     */
+    public void lookup(double lat, double lon, Listener listener) {
+        String cell = LocationCell.key(lat, lon, CELL_PRECISION);
+
+        String cached = memoryCache.get(cell);
+        if (cached != null) {
+            listener.onPlaceName(cached);
+            return;
+        }
+
+        List<Listener> waiting = inFlight.get(cell);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        inFlight.put(cell, waiting);
+
+        executors.diskIO().execute(() -> {
+            String stored = geocodeDAO.getPlaceName(cell);
+            if (stored != null) {
+                executors.mainThread().execute(() -> complete(cell, stored, true));
+            } else {
+                executors.networkIO().execute(() -> resolve(cell, lat, lon));
+            }
+        });
+    }
+
+    // ==================== INTERNALS ====================
+
+    /**
+     * Call the platform Geocoder and store the result; runs on the network pool
+     */
+    private void resolve(String cell, double lat, double lon) {
+        String placeName = null;
+        if (Geocoder.isPresent()) {
+            try {
+                List<Address> addresses = new Geocoder(context, Locale.getDefault()).getFromLocation(lat, lon, 1);
+                if (addresses != null && !addresses.isEmpty()) {
+                    placeName = formatAddress(addresses.get(0));
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                Log.e(TAG, "Geocoder error: " + e.getMessage());
+            }
+        }
+
+        if (placeName != null) {
+            String result = placeName;
+            executors.diskIO().execute(() -> geocodeDAO.putPlaceName(cell, result));
+            executors.mainThread().execute(() -> complete(cell, result, true));
+        } else {
+            String offline = nearestOffline(lat, lon);
+            executors.mainThread().execute(() -> complete(cell, offline, false));
+        }
+    }
+
+    /**
+     * Name the nearest bundled city; runs on the network pool
+     * @return "Near City, Country", or null if nothing is close enough
+     */
+    private String nearestOffline(double lat, double lon) {
+        PlaceIndex index;
+        synchronized (this) {
+            if (placeIndex == null) {
+                try {
+                    placeIndex = PlaceIndex.open(context);
+                } catch (IOException e) {
+                    Log.e(TAG, "Offline place index unavailable: " + e.getMessage());
+                    return null;
+                }
+            }
+            index = placeIndex;
+        }
+
+        PlaceIndex.Place place = index.nearest(lat, lon);
+        if (place == null || place.getDistanceMeters() > MAX_OFFLINE_DISTANCE_METERS) {
+            return null;
+        }
+        return "Near " + place.getName();
+    }
+
+    private void complete(String cell, String placeName, boolean cacheable) {
+        if (placeName != null && cacheable) {
+            memoryCache.put(cell, placeName);
+        }
+        List<Listener> waiting = inFlight.remove(cell);
+        if (waiting == null) return;
+        for (Listener listener : waiting) {
+            listener.onPlaceName(placeName);
+        }
+    }
+
+    /**
+     * Build "Locality, Country", falling back to wider administrative areas
+     * @return Display name, or null if the address has no usable area
+     */
+    private static String formatAddress(Address address) {
+        String locationName = "";
+        if (address.getLocality() != null) {
+            locationName = address.getLocality();
+        } else if (address.getSubAdminArea() != null) {
+            locationName = address.getSubAdminArea();
+        } else if (address.getAdminArea() != null) {
+            locationName = address.getAdminArea();
+        }
+
+        if (locationName.isEmpty()) {
+            return null;
+        }
+        if (address.getCountryName() != null) {
+            locationName += ", " + address.getCountryName();
+        }
+        return locationName;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.teragaurd;
+
+import android.database.Cursor;
+
+/**
+ * Maps cursor rows to objects of type T
+ * bind() looks up column indices once per cursor; the returned Row then
+ * reads every row with plain index access. Mappers are stateless and can be
+ * shared as constants; a Row belongs to one cursor. See CursorRows
+ * @param <T> Type each row maps to
+ */
+public interface RowMapper<T> {
+
+    /**
+     * Resolve the columns this mapper reads
+     * @param cursor Cursor about to be read
+     * @return Row reader for this cursor
+     */
+    Row<T> bind(Cursor cursor);
+
+    /**
+     * Reads rows of one cursor with its column indices already resolved
+     */
+    interface Row<T> {
+
+        /**
+         * Map the current row to a new object
+         * @param cursor Cursor positioned at a row
+         * @return Mapped row
+         */
+        T read(Cursor cursor);
+
+        /**
+         * Map the current row, refilling a previous result when the type is mutable
+         * The default allocates, like read(cursor)
+         * @param cursor Cursor positioned at a row
+         * @param reuse Object returned for the previous row, or null for the first row
+         * @return Mapped row, possibly reuse itself
+         */
+        default T read(Cursor cursor, T reuse) {
+            return read(cursor);
+        }
+    }
+}
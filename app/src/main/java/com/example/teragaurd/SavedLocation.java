@@ -0,0 +1,46 @@
+package com.example.teragaurd;
+
+/**
+ * Data model class for a watchlist location (home, office, family...)
+ */
+public class SavedLocation {
+    private long id; // SQLite primary key
+    private String name;
+    private double latitude;
+    private double longitude;
+
+    public SavedLocation(String name, double latitude, double longitude) {
+        this.id = -1; // -1 indicates not yet saved to database
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Constructor with ID (for loading from database)
+    public SavedLocation(long id, String name, double latitude, double longitude) {
+        this.id = id;
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a breadcrumb trail while SOS mode is active
+ * Subscribes to LocationEngine with the SOS purpose (high accuracy, every few
+ * seconds) and appends each fix to a TrailBuffer in app storage. Appends run
+ * on the main thread as plain stores into the mapping; the file is flushed to
+ * storage at most every FORCE_INTERVAL_MILLIS and when recording stops
+ */
+public class SosTrailRecorder implements LocationEngine.Listener {
+
+    private static final String TAG = "SosTrailRecorder";
+    private static final String FILE_NAME = "sos_trail.bin";
+
+    // 4096 records * 32 bytes = 128 KB, about 5.5 hours at the 5 s SOS interval
+    private static final int CAPACITY = 4096;
+
+    // Limits fsyncs; a process crash loses nothing, only a power loss can lose this window
+    private static final long FORCE_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // Singleton instance
+    private static SosTrailRecorder instance;
+
+    private final Context context;
+    private final LocationEngine locationEngine;
+    private final AppExecutors executors;
+
+    private TrailBuffer trail; // Guarded by this; opened on the disk thread
+    private boolean recording = false;
+    private long lastForceTime = 0;
+
+    /**
+     * Get singleton instance of SosTrailRecorder
+     * @param context Application context
+     * @return SosTrailRecorder instance
+     */
+    public static synchronized SosTrailRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new SosTrailRecorder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SosTrailRecorder(Context context) {
+        this.context = context;
+        locationEngine = LocationEngine.getInstance(context);
+        executors = AppExecutors.getInstance();
+    }
+
+    /**
+     * Start recording; must be called on the main thread
+     */
+    public void start() {
+        if (recording) return;
+        recording = true;
+
+        executors.diskIO().execute(() -> {
+            try {
+                openTrail();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to open SOS trail: " + e.getMessage());
+            }
+        });
+        locationEngine.addListener(this, LocationPolicy.Purpose.SOS);
+        Log.d(TAG, "SOS trail recording started");
+    }
+
+    /**
+     * Stop recording and flush the trail; must be called on the main thread
+     */
+    public void stop() {
+        if (!recording) return;
+        recording = false;
+
+        locationEngine.removeListener(this);
+        executors.diskIO().execute(this::force);
+        Log.d(TAG, "SOS trail recording stopped");
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    @Override
+    public void onLocation(Location location) {
+        synchronized (this) {
+            // Fixes before the file is open are dropped; the first one arrives seconds later anyway
+            if (trail == null) return;
+            trail.append(location.getTime(), location.getLatitude(), location.getLongitude(),
+                    location.getAccuracy());
+        }
+
+        long now = SystemClock.elapsedRealtime();
+        if (now - lastForceTime >= FORCE_INTERVAL_MILLIS) {
+            lastForceTime = now;
+            executors.diskIO().execute(this::force);
+        }
+    }
+
+    /**
+     * Stream the last minutes of the trail as CSV, e.g. into a share intent's file
+     * Works after a restart too, since the trail is read back from storage.
+     * Only the copy of the records holds the lock; formatting and writing run
+     * after it is released, so main-thread appends are not held up by a slow
+     * destination. Must not be called on the main thread
+     * @param minutes How far back to go
+     * @param out Destination; not closed
+     * @return Number of records written
+     */
+    public int writeLastMinutes(long minutes, Writer out) throws IOException {
+        long since = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutes);
+        TrailBuffer.Slice records;
+        synchronized (this) {
+            openTrail();
+            records = trail.copySince(since);
+        }
+        return records.writeCsv(out);
+    }
+
+    // ==================== INTERNALS ====================
+
+    private synchronized void openTrail() throws IOException {
+        if (trail == null) {
+            trail = new TrailBuffer(new File(context.getFilesDir(), FILE_NAME), CAPACITY);
+        }
+    }
+
+    /**
+     * Flush without holding the lock, so main-thread appends never wait on an fsync
+     */
+    private void force() {
+        TrailBuffer opened;
+        synchronized (this) {
+            opened = trail;
+        }
+        if (opened != null) {
+            opened.force();
+        }
+    }
+}
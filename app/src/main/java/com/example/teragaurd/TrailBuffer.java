@@ -0,0 +1,204 @@
+package com.example.teragaurd;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Fixed-size ring buffer of location records in a memory-mapped file
+ * Appends are plain stores into the mapping: no allocation and no syscall,
+ * and the data survives process death because the pages belong to the
+ * kernel. force() flushes to storage and should be called sparingly.
+ *
+ * Layout, big-endian: a 32-byte header (magic "TGSR", version, capacity,
+ * record size, total records written) followed by capacity 32-byte records
+ * of time (ms), latitude, longitude, accuracy (m) and a sequence number.
+ * The sequence number is written last, so a record torn by a crash is
+ * skipped on read. Callers must synchronize access
+ */
+public class TrailBuffer implements Closeable {
+
+    public static final int RECORD_BYTES = 32;
+
+    private static final int MAGIC = 0x54475352; // "TGSR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int WRITE_COUNT_OFFSET = 16;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long writeCount;
+
+    /**
+     * Open an existing trail or create an empty one
+     * A file with a different layout or capacity is reset
+     * @param path File to map
+     * @param capacity Number of records kept before the oldest is overwritten
+     */
+    public TrailBuffer(File path, int capacity) throws IOException {
+        this.capacity = capacity;
+        long size = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        file = new RandomAccessFile(path, "rw");
+        try {
+            boolean reset = file.length() != size;
+            file.setLength(size);
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (reset || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != capacity || buffer.getInt(12) != RECORD_BYTES) {
+                for (long i = 0; i < size; i++) {
+                    buffer.put((int) i, (byte) 0);
+                }
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, capacity);
+                buffer.putInt(12, RECORD_BYTES);
+                buffer.putLong(WRITE_COUNT_OFFSET, 0);
+            }
+            writeCount = buffer.getLong(WRITE_COUNT_OFFSET);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append one record, overwriting the oldest once the buffer is full
+     * @param timeMillis Fix time (wall clock)
+     * @param lat Latitude
+     * @param lon Longitude
+     * @param accuracyMeters Horizontal accuracy
+     */
+    public void append(long timeMillis, double lat, double lon, float accuracyMeters) {
+        int record = recordOffset(writeCount);
+        // Clear the sequence first so a crash mid-write cannot leave a valid-looking record
+        buffer.putInt(record + 28, 0);
+        buffer.putLong(record, timeMillis);
+        buffer.putDouble(record + 8, lat);
+        buffer.putDouble(record + 16, lon);
+        buffer.putFloat(record + 24, accuracyMeters);
+        buffer.putInt(record + 28, sequenceOf(writeCount));
+
+        writeCount++;
+        buffer.putLong(WRITE_COUNT_OFFSET, writeCount);
+    }
+
+    /**
+     * Number of readable records
+     */
+    public int size() {
+        return (int) Math.min(writeCount, capacity);
+    }
+
+    /**
+     * Flush the mapping to storage
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * Copy records newer than a cutoff, oldest first, so they can be formatted
+     * after the caller's lock is released. At most capacity records are copied
+     * @param sinceMillis Only records at or after this time are copied
+     * @return Detached copy of the matching records
+     */
+    public Slice copySince(long sinceMillis) {
+        Slice slice = new Slice(size());
+        for (long index = writeCount - size(); index < writeCount; index++) {
+            int record = recordOffset(index);
+            if (buffer.getInt(record + 28) != sequenceOf(index)) continue;
+
+            long time = buffer.getLong(record);
+            if (time < sinceMillis) continue;
+            slice.add(time, buffer.getDouble(record + 8), buffer.getDouble(record + 16),
+                    buffer.getFloat(record + 24));
+        }
+        return slice;
+    }
+
+    /**
+     * Write records newer than a cutoff as CSV, oldest first
+     * @param sinceMillis Only records at or after this time are written
+     * @param out Destination; not closed
+     * @return Number of records written
+     */
+    public int writeSince(long sinceMillis, Writer out) throws IOException {
+        return copySince(sinceMillis).writeCsv(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private int recordOffset(long index) {
+        return HEADER_BYTES + (int) (index % capacity) * RECORD_BYTES;
+    }
+
+    /**
+     * Non-zero sequence tag for the record written at this index
+     */
+    private static int sequenceOf(long index) {
+        int sequence = (int) (index + 1);
+        return sequence != 0 ? sequence : 1;
+    }
+
+    /**
+     * Records copied out of the trail, independent of later appends
+     */
+    public static class Slice {
+        private final long[] times;
+        private final double[] lats;
+        private final double[] lons;
+        private final float[] accuracies;
+        private int count;
+
+        Slice(int capacity) {
+            times = new long[capacity];
+            lats = new double[capacity];
+            lons = new double[capacity];
+            accuracies = new float[capacity];
+        }
+
+        void add(long time, double lat, double lon, float accuracy) {
+            times[count] = time;
+            lats[count] = lat;
+            lons[count] = lon;
+            accuracies[count] = accuracy;
+            count++;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Write the records as CSV with a header line
+         * @param out Destination; not closed
+         * @return Number of records written
+         */
+        public int writeCsv(Writer out) throws IOException {
+            SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+            iso.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+            out.write("time,latitude,longitude,accuracy_m\n");
+            for (int i = 0; i < count; i++) {
+                out.write(String.format(Locale.US, "%s,%.6f,%.6f,%.1f%n", iso.format(new Date(times[i])),
+                        lats[i], lons[i], accuracies[i]));
+            }
+            out.flush();
+            return count;
+        }
+    }
+}
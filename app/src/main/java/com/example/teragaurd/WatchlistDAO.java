@@ -0,0 +1,118 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object (DAO) for the saved locations watchlist
+ */
+public class WatchlistDAO {
+
+    private SQLiteDatabase database;
+    private DatabaseHelper dbHelper;
+
+    public WatchlistDAO(Context context) {
+        dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    /**
+     * Open database connection for writing
+     */
+    public void open() {
+        database = dbHelper.getWritableDatabase();
+    }
+
+    /**
+     * Insert a new saved location
+     * @param location The location to insert
+     * @return The row ID of the newly inserted location, or -1 if error
+     */
+    public long insertLocation(SavedLocation location) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_NAME, location.getName());
+        values.put(DatabaseHelper.COLUMN_LATITUDE, location.getLatitude());
+        values.put(DatabaseHelper.COLUMN_LONGITUDE, location.getLongitude());
+        values.put(DatabaseHelper.COLUMN_CREATED_AT, System.currentTimeMillis());
+
+        long id = database.insert(DatabaseHelper.TABLE_SAVED_LOCATIONS, null, values);
+        location.setId(id);
+        return id;
+    }
+
+    /**
+     * Delete a saved location
+     * @param id The location ID
+     * @return Number of rows deleted
+     */
+    public int deleteLocation(long id) {
+        return database.delete(
+                DatabaseHelper.TABLE_SAVED_LOCATIONS,
+                DatabaseHelper.COLUMN_ID + " = ?",
+                new String[]{String.valueOf(id)}
+        );
+    }
+
+    /**
+     * Get all saved locations, oldest first
+     * @return List of saved locations
+     */
+    public List<SavedLocation> getAllLocations() {
+        List<SavedLocation> locations = new ArrayList<>();
+
+        String[] columns = {
+                DatabaseHelper.COLUMN_ID,
+                DatabaseHelper.COLUMN_NAME,
+                DatabaseHelper.COLUMN_LATITUDE,
+                DatabaseHelper.COLUMN_LONGITUDE
+        };
+
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_SAVED_LOCATIONS,
+                columns,
+                null, null, null, null,
+                DatabaseHelper.COLUMN_ID + " ASC"
+        );
+
+        if (cursor != null) {
+            try {
+                int idIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_ID);
+                int nameIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_NAME);
+                int latIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LATITUDE);
+                int lonIndex = cursor.getColumnIndexOrThrow(DatabaseHelper.COLUMN_LONGITUDE);
+                while (cursor.moveToNext()) {
+                    locations.add(new SavedLocation(
+                            cursor.getLong(idIndex),
+                            cursor.getString(nameIndex),
+                            cursor.getDouble(latIndex),
+                            cursor.getDouble(lonIndex)));
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        return locations;
+    }
+
+    /**
+     * Get number of saved locations
+     * @return Location count
+     */
+    public int getLocationCount() {
+        Cursor cursor = database.rawQuery(
+                "SELECT COUNT(*) FROM " + DatabaseHelper.TABLE_SAVED_LOCATIONS, null);
+        int count = 0;
+        if (cursor != null) {
+            if (cursor.moveToFirst()) {
+                count = cursor.getInt(0);
+            }
+            cursor.close();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.teragaurd;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import retrofit2.Call;
+
+/**
+ * Fetches weather and AQI for a batch of saved locations
+ * Work runs on a bounded executor so at most a few calls are in flight, all
+ * sharing the client's connection pool. The whole batch has a latency budget:
+ * calls still running when it expires are cancelled and counted as timed out
+ */
+public class WatchlistFetcher {
+
+    /**
+     * Outcome of one batch
+     */
+    public static class Result {
+        private final List<WeatherSnapshot> snapshots;
+        private final int failed;
+        private final int timedOut;
+        private final long elapsedMillis;
+
+        Result(List<WeatherSnapshot> snapshots, int failed, int timedOut, long elapsedMillis) {
+            this.snapshots = Collections.unmodifiableList(snapshots);
+            this.failed = failed;
+            this.timedOut = timedOut;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Snapshots with at least one fresh field, in watchlist order
+         */
+        public List<WeatherSnapshot> getSnapshots() { return snapshots; }
+        public int getFailed() { return failed; }
+        public int getTimedOut() { return timedOut; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return "ok=" + snapshots.size() + " failed=" + failed
+                    + " timedOut=" + timedOut + " elapsed=" + elapsedMillis + "ms";
+        }
+    }
+
+    private final ApiService apiService;
+    private final ExecutorService executor;
+    private final String apiKey;
+
+    /**
+     * @param apiService Shared ApiService
+     * @param executor Bounded executor; its size is the maximum parallelism
+     * @param apiKey OpenWeatherMap API key
+     */
+    public WatchlistFetcher(ApiService apiService, ExecutorService executor, String apiKey) {
+        this.apiService = apiService;
+        this.executor = executor;
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * Fetch every location, blocking until done or the budget runs out
+     * Must not be called on the main thread or on the fetcher's own executor
+     * @param locations Locations to refresh
+     * @param budgetMillis Latency budget for the whole batch
+     * @return Snapshots and counters for the batch
+     */
+    public Result fetchAll(List<SavedLocation> locations, long budgetMillis) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        long deadline = start + budgetMillis;
+        Set<Call<?>> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        List<Future<WeatherSnapshot>> futures = new ArrayList<>(locations.size());
+        for (SavedLocation location : locations) {
+            futures.add(executor.submit(fetchTask(location, inFlight, deadline)));
+        }
+
+        List<WeatherSnapshot> snapshots = new ArrayList<>(locations.size());
+        int failed = 0;
+        int timedOut = 0;
+        for (Future<WeatherSnapshot> future : futures) {
+            long remaining = Math.max(0, deadline - System.currentTimeMillis());
+            try {
+                WeatherSnapshot snapshot = future.get(remaining, TimeUnit.MILLISECONDS);
+                if (snapshot.hasTemperature() || snapshot.hasAqi()) {
+                    snapshots.add(snapshot);
+                } else {
+                    failed++;
+                }
+            } catch (TimeoutException e) {
+                // Budget spent: stop whatever is still running or queued
+                for (Call<?> call : inFlight) {
+                    call.cancel();
+                }
+                future.cancel(true);
+                timedOut++;
+            } catch (ExecutionException e) {
+                failed++;
+            } catch (InterruptedException e) {
+                for (Future<WeatherSnapshot> pending : futures) {
+                    pending.cancel(true);
+                }
+                throw e;
+            }
+        }
+
+        return new Result(snapshots, failed, timedOut, System.currentTimeMillis() - start);
+    }
+
+    private Callable<WeatherSnapshot> fetchTask(SavedLocation location, Set<Call<?>> inFlight, long deadline) {
+        return () -> {
+            double lat = location.getLatitude();
+            double lon = location.getLongitude();
+            WeatherSnapshot.Builder builder = new WeatherSnapshot.Builder(lat, lon);
+            IOException lastError = null;
+
+            try {
+                retrofit2.Response<WeatherResponse> response = execute(
+                        apiService.getWeather(lat, lon, apiKey, WeatherRepository.UNITS), inFlight, deadline);
+                Double temperature = WeatherRepository.temperatureOf(response);
+                if (temperature != null) {
+                    builder.temperature(temperature, WeatherRepository.fetchedAtOf(response),
+                            WeatherRepository.freshnessOf(response));
+                }
+            } catch (IOException e) {
+                lastError = e;
+            }
+
+            try {
+                retrofit2.Response<AqiResponse> response =
+                        execute(apiService.getAqi(lat, lon, apiKey), inFlight, deadline);
+                Integer aqi = WeatherRepository.aqiOf(response);
+                if (aqi != null) {
+                    builder.aqi(aqi, WeatherRepository.fetchedAtOf(response), WeatherRepository.freshnessOf(response));
+                }
+            } catch (IOException e) {
+                lastError = e;
+            }
+
+            WeatherSnapshot snapshot = builder.build();
+            if (lastError != null && !snapshot.hasTemperature() && !snapshot.hasAqi()) {
+                throw lastError;
+            }
+            return snapshot;
+        };
+    }
+
+    /**
+     * Execute a call, tracking it so the batch can cancel it when the budget expires
+     */
+    private static <T> retrofit2.Response<T> execute(Call<T> call, Set<Call<?>> inFlight, long deadline)
+            throws IOException {
+        if (System.currentTimeMillis() >= deadline) {
+            throw new IOException("Batch budget expired");
+        }
+        inFlight.add(call);
+        try {
+            return call.execute();
+        } finally {
+            inFlight.remove(call);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository for the saved locations watchlist
+ * Locations are stored in SQLite; refreshAllBlocking() fetches weather and AQI
+ * for all of them through WatchlistFetcher and writes the results to the
+ * weather history store, so each site renders offline afterwards
+ */
+public class WatchlistRepository {
+
+    private static final String TAG = "WatchlistRepository";
+
+    // Upper bound on saved sites; a full batch must fit the refresh budget
+    public static final int MAX_LOCATIONS = 20;
+    private static final long REFRESH_BUDGET_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Receives the current watchlist on the main thread
+     */
+    public interface Listener {
+        void onLocations(List<SavedLocation> locations);
+    }
+
+    // Singleton instance
+    private static WatchlistRepository instance;
+
+    private final WatchlistDAO watchlistDAO;
+    private final WatchlistFetcher fetcher;
+    private final WeatherRepository weatherRepository;
+    private final AppExecutors executors;
+
+    /**
+     * Get singleton instance of WatchlistRepository
+     * @param context Application context
+     * @return WatchlistRepository instance
+     */
+    public static synchronized WatchlistRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new WatchlistRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private WatchlistRepository(Context context) {
+        executors = AppExecutors.getInstance();
+        weatherRepository = WeatherRepository.getInstance(context);
+        fetcher = new WatchlistFetcher(
+                NetworkModule.getInstance(context).getApiService(),
+                executors.networkIO(),
+                NetworkModule.API_KEY);
+        watchlistDAO = new WatchlistDAO(context);
+        executors.diskIO().execute(watchlistDAO::open);
+    }
+
+    /**
+     * Load the saved locations
+     * @param listener Listener to receive the list on the main thread
+     */
+    public void loadLocations(Listener listener) {
+        executors.diskIO().execute(() -> {
+            List<SavedLocation> locations = watchlistDAO.getAllLocations();
+            executors.mainThread().execute(() -> listener.onLocations(locations));
+        });
+    }
+
+    /**
+     * Save a location, unless the watchlist is already full
+     * @param location The location to save
+     * @param listener Listener to receive the updated list on the main thread
+     */
+    public void addLocation(SavedLocation location, Listener listener) {
+        executors.diskIO().execute(() -> {
+            if (watchlistDAO.getLocationCount() < MAX_LOCATIONS) {
+                watchlistDAO.insertLocation(location);
+            } else {
+                Log.w(TAG, "Watchlist full, not saving " + location.getName());
+            }
+            List<SavedLocation> locations = watchlistDAO.getAllLocations();
+            executors.mainThread().execute(() -> listener.onLocations(locations));
+        });
+    }
+
+    /**
+     * Remove a saved location
+     * @param id The location ID
+     * @param listener Listener to receive the updated list on the main thread
+     */
+    public void removeLocation(long id, Listener listener) {
+        executors.diskIO().execute(() -> {
+            watchlistDAO.deleteLocation(id);
+            List<SavedLocation> locations = watchlistDAO.getAllLocations();
+            executors.mainThread().execute(() -> listener.onLocations(locations));
+        });
+    }
+
+    /**
+     * Refresh every saved location within the batch budget and persist the results
+     * Must not be called on the main thread
+     * @return Counters for the batch
+     * @throws IOException if interrupted
+     */
+    public WatchlistFetcher.Result refreshAllBlocking() throws IOException {
+        try {
+            List<SavedLocation> locations = executors.diskIO().submit(watchlistDAO::getAllLocations).get();
+            WatchlistFetcher.Result result = fetcher.fetchAll(locations, REFRESH_BUDGET_MILLIS);
+            if (!result.getSnapshots().isEmpty()) {
+                weatherRepository.saveWatchlistBlocking(result.getSnapshots());
+            }
+            Log.d(TAG, "Watchlist refreshed: " + result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during watchlist refresh");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to read watchlist", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.teragaurd;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data Access Object (DAO) for weather history
+ * Persists current conditions, AQI samples and forecast points per location cell
+ * so the dashboard can render the last snapshot before the network answers
+ */
+public class WeatherDAO {
+
+    // Retention policy - keeps the store bounded on long-running installs
+    private static final long RETENTION_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final long FORECAST_GRACE_SECONDS = TimeUnit.HOURS.toSeconds(3);
+    private static final int MAX_ROWS_PER_TABLE = 2000;
+
+    private SQLiteDatabase database;
+    private DatabaseHelper dbHelper;
+
+    public WeatherDAO(Context context) {
+        this(DatabaseHelper.getInstance(context));
+    }
+
+    /**
+     * Use a specific database helper, for tests
+     */
+    WeatherDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Open database connection for writing
+     */
+    public void open() {
+        database = dbHelper.getWritableDatabase();
+    }
+
+    /**
+     * Store the freshly fetched fields of a snapshot
+     * Fields carried over from older snapshots are not written again
+     * @param snapshot The snapshot to persist
+     */
+    public void saveSnapshot(WeatherSnapshot snapshot) {
+        database.beginTransaction();
+        try {
+            insertSnapshot(snapshot, true);
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Store a batch of watchlist snapshots in a single transaction
+     * These rows never count as the device's last known location
+     * @param snapshots The snapshots to persist
+     */
+    public void saveWatchlistSnapshots(List<WeatherSnapshot> snapshots) {
+        database.beginTransaction();
+        try {
+            for (WeatherSnapshot snapshot : snapshots) {
+                insertSnapshot(snapshot, false);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    private void insertSnapshot(WeatherSnapshot snapshot, boolean isDeviceFix) {
+        String cell = LocationCell.key(snapshot.getLatitude(), snapshot.getLongitude());
+
+        if (snapshot.getTemperatureFreshness() == WeatherSnapshot.Freshness.FRESH) {
+            ContentValues values = locationValues(cell, snapshot);
+            values.put(DatabaseHelper.COLUMN_TEMPERATURE, snapshot.getTemperature());
+            values.put(DatabaseHelper.COLUMN_RECORDED_AT, snapshot.getTemperatureTime());
+            values.put(DatabaseHelper.COLUMN_IS_DEVICE_FIX, isDeviceFix ? 1 : 0);
+            database.insert(DatabaseHelper.TABLE_WEATHER_CONDITIONS, null, values);
+        }
+
+        if (snapshot.getAqiFreshness() == WeatherSnapshot.Freshness.FRESH) {
+            ContentValues values = locationValues(cell, snapshot);
+            values.put(DatabaseHelper.COLUMN_AQI, snapshot.getAqi());
+            values.put(DatabaseHelper.COLUMN_RECORDED_AT, snapshot.getAqiTime());
+            database.insert(DatabaseHelper.TABLE_AQI_SAMPLES, null, values);
+        }
+
+        if (snapshot.getForecastFreshness() == WeatherSnapshot.Freshness.FRESH) {
+            ForecastSeries forecast = snapshot.getForecast();
+            for (int i = 0; i < forecast.size(); i++) {
+                ContentValues values = new ContentValues();
+                values.put(DatabaseHelper.COLUMN_CELL, cell);
+                values.put(DatabaseHelper.COLUMN_FORECAST_TIME, forecast.getDt(i));
+                values.put(DatabaseHelper.COLUMN_TEMPERATURE, forecast.getTemp(i));
+                values.put(DatabaseHelper.COLUMN_FEELS_LIKE, forecast.getFeelsLike(i));
+                values.put(DatabaseHelper.COLUMN_TEMP_MIN, forecast.getTempMin(i));
+                values.put(DatabaseHelper.COLUMN_TEMP_MAX, forecast.getTempMax(i));
+                values.put(DatabaseHelper.COLUMN_HUMIDITY, forecast.getHumidity(i));
+                values.put(DatabaseHelper.COLUMN_RECORDED_AT, snapshot.getForecastTime());
+                database.insert(DatabaseHelper.TABLE_FORECAST_POINTS, null, values);
+            }
+        }
+    }
+
+    /**
+     * Get the last stored snapshot for the cell containing a location
+     * @param lat Latitude
+     * @param lon Longitude
+     * @return Snapshot with every stored field marked STALE, or null if nothing is stored
+     */
+    public WeatherSnapshot getLatestSnapshot(double lat, double lon) {
+        return buildSnapshot(LocationCell.key(lat, lon), lat, lon);
+    }
+
+    /**
+     * Get the last stored snapshot for whichever device location was updated most recently
+     * Watchlist locations are ignored
+     * @return Snapshot with every stored field marked STALE, or null if nothing is stored
+     */
+    public WeatherSnapshot getMostRecentSnapshot() {
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_WEATHER_CONDITIONS,
+                new String[]{DatabaseHelper.COLUMN_CELL, DatabaseHelper.COLUMN_LATITUDE, DatabaseHelper.COLUMN_LONGITUDE},
+                DatabaseHelper.COLUMN_IS_DEVICE_FIX + " = 1", null, null, null,
+                DatabaseHelper.COLUMN_RECORDED_AT + " DESC",
+                "1"
+        );
+
+        WeatherSnapshot snapshot = null;
+        if (cursor != null) {
+            if (cursor.moveToFirst()) {
+                snapshot = buildSnapshot(cursor.getString(0), cursor.getDouble(1), cursor.getDouble(2));
+            }
+            cursor.close();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Apply the retention policy: drop expired rows and cap each table
+     * @param now Current time in milliseconds
+     * @return Number of rows deleted
+     */
+    public int compact(long now) {
+        int deleted = 0;
+        String[] cutoff = {String.valueOf(now - RETENTION_MILLIS)};
+
+        database.beginTransaction();
+        try {
+            deleted += database.delete(DatabaseHelper.TABLE_WEATHER_CONDITIONS,
+                    DatabaseHelper.COLUMN_RECORDED_AT + " < ?", cutoff);
+            deleted += database.delete(DatabaseHelper.TABLE_AQI_SAMPLES,
+                    DatabaseHelper.COLUMN_RECORDED_AT + " < ?", cutoff);
+
+            // Forecast points are useless once they are in the past
+            deleted += database.delete(DatabaseHelper.TABLE_FORECAST_POINTS,
+                    DatabaseHelper.COLUMN_FORECAST_TIME + " < ?",
+                    new String[]{String.valueOf(TimeUnit.MILLISECONDS.toSeconds(now) - FORECAST_GRACE_SECONDS)});
+
+            deleted += capRows(DatabaseHelper.TABLE_WEATHER_CONDITIONS);
+            deleted += capRows(DatabaseHelper.TABLE_AQI_SAMPLES);
+            deleted += capRows(DatabaseHelper.TABLE_FORECAST_POINTS);
+
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        return deleted;
+    }
+
+    // ==================== INTERNALS ====================
+
+    private ContentValues locationValues(String cell, WeatherSnapshot snapshot) {
+        ContentValues values = new ContentValues();
+        values.put(DatabaseHelper.COLUMN_CELL, cell);
+        values.put(DatabaseHelper.COLUMN_LATITUDE, snapshot.getLatitude());
+        values.put(DatabaseHelper.COLUMN_LONGITUDE, snapshot.getLongitude());
+        return values;
+    }
+
+    /**
+     * Keep only the newest MAX_ROWS_PER_TABLE rows of a table
+     */
+    private int capRows(String table) {
+        return database.delete(table,
+                DatabaseHelper.COLUMN_ID + " NOT IN (SELECT " + DatabaseHelper.COLUMN_ID +
+                        " FROM " + table +
+                        " ORDER BY " + DatabaseHelper.COLUMN_RECORDED_AT + " DESC" +
+                        " LIMIT " + MAX_ROWS_PER_TABLE + ")",
+                null);
+    }
+
+    private WeatherSnapshot buildSnapshot(String cell, double lat, double lon) {
+        WeatherSnapshot.Builder builder = new WeatherSnapshot.Builder(lat, lon);
+        boolean found = false;
+        String[] cellArgs = {cell};
+
+        Cursor cursor = database.query(
+                DatabaseHelper.TABLE_WEATHER_CONDITIONS,
+                new String[]{DatabaseHelper.COLUMN_TEMPERATURE, DatabaseHelper.COLUMN_RECORDED_AT},
+                DatabaseHelper.COLUMN_CELL + " = ?", cellArgs,
+                null, null,
+                DatabaseHelper.COLUMN_RECORDED_AT + " DESC",
+                "1"
+        );
+        if (cursor != null) {
+            if (cursor.moveToFirst()) {
+                builder.temperature(cursor.getDouble(0), cursor.getLong(1), WeatherSnapshot.Freshness.STALE);
+                found = true;
+            }
+            cursor.close();
+        }
+
+        cursor = database.query(
+                DatabaseHelper.TABLE_AQI_SAMPLES,
+                new String[]{DatabaseHelper.COLUMN_AQI, DatabaseHelper.COLUMN_RECORDED_AT},
+                DatabaseHelper.COLUMN_CELL + " = ?", cellArgs,
+                null, null,
+                DatabaseHelper.COLUMN_RECORDED_AT + " DESC",
+                "1"
+        );
+        if (cursor != null) {
+            if (cursor.moveToFirst()) {
+                builder.aqi(cursor.getInt(0), cursor.getLong(1), WeatherSnapshot.Freshness.STALE);
+                found = true;
+            }
+            cursor.close();
+        }
+
+        long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        cursor = database.query(
+                DatabaseHelper.TABLE_FORECAST_POINTS,
+                new String[]{DatabaseHelper.COLUMN_FORECAST_TIME, DatabaseHelper.COLUMN_TEMPERATURE,
+                        DatabaseHelper.COLUMN_FEELS_LIKE, DatabaseHelper.COLUMN_TEMP_MIN,
+                        DatabaseHelper.COLUMN_TEMP_MAX, DatabaseHelper.COLUMN_HUMIDITY,
+                        DatabaseHelper.COLUMN_RECORDED_AT},
+                DatabaseHelper.COLUMN_CELL + " = ? AND " + DatabaseHelper.COLUMN_FORECAST_TIME + " >= ?",
+                new String[]{cell, String.valueOf(nowSeconds - FORECAST_GRACE_SECONDS)},
+                null, null,
+                DatabaseHelper.COLUMN_FORECAST_TIME + " ASC",
+                String.valueOf(WeatherRepository.FORECAST_COUNT)
+        );
+        if (cursor != null) {
+            ForecastSeries.Builder forecast = new ForecastSeries.Builder(cursor.getCount());
+            long fetchedAt = 0;
+            while (cursor.moveToNext()) {
+                forecast.add(cursor.getLong(0), cursor.getFloat(1), cursor.getFloat(2),
+                        cursor.getFloat(3), cursor.getFloat(4), cursor.getInt(5));
+                fetchedAt = Math.max(fetchedAt, cursor.getLong(6));
+            }
+            cursor.close();
+            if (forecast.size() > 0) {
+                builder.forecast(forecast.build(), fetchedAt, WeatherSnapshot.Freshness.STALE);
+                found = true;
+            }
+        }
+
+        return found ? builder.build() : null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodic background job that refreshes weather, AQI and forecast for the
+ * last known location, plus the saved watchlist, so the app opens warm during an emergency
+ * Only runs on unmetered networks, with battery not low and the device idle
+ */
+public class WeatherPrefetchWorker extends Worker {
+
+    private static final String TAG = "WeatherPrefetchWorker";
+    private static final String UNIQUE_WORK_NAME = "weather-prefetch";
+    private static final long REPEAT_INTERVAL_HOURS = 1;
+
+    public WeatherPrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedule the periodic prefetch; keeps the existing schedule if already enqueued
+     * @param context Any context
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .setRequiresDeviceIdle(true)
+                .build();
+
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                WeatherPrefetchWorker.class, REPEAT_INTERVAL_HOURS, TimeUnit.HOURS)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context.getApplicationContext())
+                .enqueueUniquePeriodicWork(UNIQUE_WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        WeatherRepository repository = WeatherRepository.getInstance(getApplicationContext());
+        boolean retry = false;
+
+        WeatherSnapshot lastKnown = repository.getLastKnownBlocking();
+        if (lastKnown == null) {
+            Log.d(TAG, "No known location yet, nothing to prefetch");
+        } else {
+            try {
+                WeatherSnapshot snapshot = repository.refreshBlocking(lastKnown.getLatitude(), lastKnown.getLongitude());
+                Log.d(TAG, "Prefetched snapshot, complete=" + snapshot.isComplete());
+                if (shouldRetry(snapshot)) {
+                    Log.w(TAG, "Only stale cached data was reachable, will retry");
+                    retry = true;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Prefetch failed, will retry: " + e.getMessage());
+                retry = true;
+            }
+        }
+
+        // Saved sites are refreshed in one bounded batch
+        try {
+            WatchlistFetcher.Result result =
+                    WatchlistRepository.getInstance(getApplicationContext()).refreshAllBlocking();
+            if (result.getFailed() + result.getTimedOut() > 0 && result.getSnapshots().isEmpty()) {
+                retry = true;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Watchlist refresh failed, will retry: " + e.getMessage());
+            retry = true;
+        }
+
+        return retry ? Result.retry() : Result.success();
+    }
+
+    /**
+     * Check whether a prefetched snapshot warrants another attempt
+     * A snapshot with no current field was only served from expired cache
+     * entries, i.e. the network was not really reached
+     * @param snapshot Snapshot returned by WeatherRepository.refreshBlocking()
+     * @return true if the work should be retried
+     */
+    static boolean shouldRetry(WeatherSnapshot snapshot) {
+        return !snapshot.hasCurrentData();
+    }
+}
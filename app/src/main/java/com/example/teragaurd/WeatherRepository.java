@@ -0,0 +1,484 @@
+package com.example.teragaurd;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Repository for weather data shown on the dashboard and map
+ * Issues the weather, AQI and forecast calls in parallel, joins them with a
+ * deadline and emits a single WeatherSnapshot per location.
+ * The last stored snapshot is emitted first (stale-while-revalidate) and every
+ * completed fetch is written back to the local history store. A fix close to
+ * the last complete snapshot, while it is within its TTL, is answered from
+ * memory (see RefreshGate)
+ */
+public class WeatherRepository {
+
+    private static final String TAG = "WeatherRepository";
+
+    // Emit whatever has arrived once this deadline passes
+    private static final long FETCH_DEADLINE_MILLIS = 8000;
+
+    // How often the history store is compacted
+    private static final long COMPACTION_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(6);
+
+    // 8 data points * 3 hours = 24 hours of forecast data
+    public static final int FORECAST_COUNT = 8;
+    static final String UNITS = "metric";
+
+    /**
+     * Receives snapshots on the main thread
+     */
+    public interface Listener {
+        void onSnapshot(WeatherSnapshot snapshot);
+    }
+
+    // Singleton instance
+    private static WeatherRepository instance;
+
+    private final ApiService apiService;
+    private final RequestCoalescer requestCoalescer;
+    private final WeatherDAO weatherDAO;
+    private final AppExecutors executors;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final RefreshGate refreshGate = new RefreshGate();
+    private long lastCompactionTime = 0; // Only touched on the disk thread
+
+    // Last snapshot whose calls all completed; only touched on the main thread
+    private WeatherSnapshot lastFetched;
+
+    // Latest snapshot per location cell, used to fill fields that failed
+    private final Map<String, WeatherSnapshot> latestByCell = new HashMap<>();
+
+    /**
+     * Get singleton instance of WeatherRepository
+     * @param context Application context
+     * @return WeatherRepository instance
+     */
+    public static synchronized WeatherRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new WeatherRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private WeatherRepository(Context context) {
+        NetworkModule networkModule = NetworkModule.getInstance(context);
+        apiService = networkModule.getApiService();
+        requestCoalescer = networkModule.getRequestCoalescer();
+
+        executors = AppExecutors.getInstance();
+        weatherDAO = new WeatherDAO(context);
+        executors.diskIO().execute(weatherDAO::open);
+    }
+
+    /**
+     * Emit the most recently stored snapshot, so a cold start can render
+     * before a location fix or network response is available
+     * Nothing is emitted if a live snapshot is already held in memory
+     * @param listener Listener to receive the snapshot on the main thread
+     */
+    public void loadLastKnown(Listener listener) {
+        executors.diskIO().execute(() -> {
+            WeatherSnapshot stored = weatherDAO.getMostRecentSnapshot();
+            if (stored == null) return;
+            executors.mainThread().execute(() -> {
+                if (lastFetched == null) {
+                    lastFetched = stored;
+                }
+                if (latestByCell.isEmpty()) {
+                    listener.onSnapshot(stored);
+                }
+            });
+        });
+    }
+
+    /**
+     * Load a snapshot for the given location
+     * The listener is called once all three calls finish or the deadline passes,
+     * and again only if a call that missed the deadline completes later.
+     * If RefreshGate finds the last snapshot still good for this fix, that
+     * snapshot is emitted once and no calls are made
+     * @param lat Latitude
+     * @param lon Longitude
+     * @param listener Listener to receive the snapshot on the main thread
+     */
+    public void load(double lat, double lon, Listener listener) {
+        WeatherSnapshot last = lastFetched;
+        if (!refreshGate.shouldRefresh(last, lat, lon, System.currentTimeMillis())) {
+            Log.d(TAG, "Fix within range of last snapshot, skipping refresh (" + refreshGate.getStats() + ")");
+            executors.mainThread().execute(() -> listener.onSnapshot(last));
+            return;
+        }
+
+        FanOut fanOut = new FanOut(lat, lon, listener);
+
+        // Render the stored snapshot immediately, then revalidate over the network
+        if (!latestByCell.containsKey(fanOut.cell)) {
+            executors.diskIO().execute(() -> {
+                WeatherSnapshot stored = weatherDAO.getLatestSnapshot(lat, lon);
+                if (stored != null) {
+                    executors.mainThread().execute(() -> fanOut.offerStored(stored));
+                }
+            });
+        }
+
+        requestCoalescer.enqueue(apiService.getWeather(lat, lon, NetworkModule.API_KEY, UNITS),
+                new Callback<WeatherResponse>() {
+                    @Override
+                    public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
+                        Double temperature = temperatureOf(response);
+                        if (temperature != null) {
+                            fanOut.setTemperature(temperature, response);
+                        } else {
+                            Log.e(TAG, "Weather response error: " + response.code());
+                        }
+                        fanOut.arrive();
+                    }
+
+                    @Override
+                    public void onFailure(Call<WeatherResponse> call, Throwable t) {
+                        Log.e(TAG, "Weather network error: " + t.getMessage());
+                        fanOut.arrive();
+                    }
+                });
+
+        requestCoalescer.enqueue(apiService.getAqi(lat, lon, NetworkModule.API_KEY),
+                new Callback<AqiResponse>() {
+                    @Override
+                    public void onResponse(Call<AqiResponse> call, Response<AqiResponse> response) {
+                        Integer aqi = aqiOf(response);
+                        if (aqi != null) {
+                            fanOut.setAqi(aqi, response);
+                        } else {
+                            Log.e(TAG, "AQI response error: " + response.code());
+                        }
+                        fanOut.arrive();
+                    }
+
+                    @Override
+                    public void onFailure(Call<AqiResponse> call, Throwable t) {
+                        Log.e(TAG, "AQI network error: " + t.getMessage());
+                        fanOut.arrive();
+                    }
+                });
+
+        requestCoalescer.enqueue(apiService.getForecast(lat, lon, NetworkModule.API_KEY, UNITS, FORECAST_COUNT),
+                new Callback<ForecastResponse>() {
+                    @Override
+                    public void onResponse(Call<ForecastResponse> call, Response<ForecastResponse> response) {
+                        ForecastSeries forecast = forecastOf(response);
+                        if (forecast != null) {
+                            fanOut.setForecast(forecast, response);
+                        } else {
+                            Log.e(TAG, "Forecast response error: " + response.code());
+                        }
+                        fanOut.arrive();
+                    }
+
+                    @Override
+                    public void onFailure(Call<ForecastResponse> call, Throwable t) {
+                        Log.e(TAG, "Forecast network error: " + t.getMessage());
+                        fanOut.arrive();
+                    }
+                });
+
+        mainHandler.postDelayed(fanOut.deadline, FETCH_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Fetch and persist a snapshot synchronously, for background prefetching
+     * Must not be called on the main thread
+     * @param lat Latitude
+     * @param lon Longitude
+     * @return The fetched snapshot; its FRESH fields are already in the history store
+     * @throws IOException if the network could not be reached and nothing was cached
+     */
+    public WeatherSnapshot refreshBlocking(double lat, double lon) throws IOException {
+        WeatherSnapshot snapshot = fetchBlocking(apiService, NetworkModule.API_KEY, lat, lon);
+        try {
+            persist(snapshot).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving snapshot");
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Failed to save prefetched snapshot: " + e.getCause());
+        }
+
+        // Let screens opened later fill gaps from the prefetched snapshot
+        executors.mainThread().execute(() -> {
+            latestByCell.put(LocationCell.key(lat, lon), snapshot);
+            lastFetched = snapshot;
+        });
+        return snapshot;
+    }
+
+    /**
+     * Persist a batch of watchlist snapshots in one transaction
+     * Must not be called on the main thread
+     * @param snapshots Snapshots fetched by WatchlistFetcher
+     */
+    public void saveWatchlistBlocking(List<WeatherSnapshot> snapshots) throws InterruptedIOException {
+        try {
+            executors.diskIO().submit(() -> weatherDAO.saveWatchlistSnapshots(snapshots)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving watchlist");
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Failed to save watchlist snapshots: " + e.getCause());
+        }
+
+        executors.mainThread().execute(() -> {
+            for (WeatherSnapshot snapshot : snapshots) {
+                latestByCell.put(LocationCell.key(snapshot.getLatitude(), snapshot.getLongitude()), snapshot);
+            }
+        });
+    }
+
+    /**
+     * Run the weather, AQI and forecast calls one after another
+     * Fields served by the response cache keep their stored time and freshness,
+     * so a run that only reached the cache does not look like a new reading
+     * @param apiService Service to call
+     * @param apiKey OpenWeatherMap API key
+     * @param lat Latitude
+     * @param lon Longitude
+     * @return Snapshot with every field that could be read, not persisted
+     * @throws IOException if a call fails and the cache has nothing to serve
+     */
+    static WeatherSnapshot fetchBlocking(ApiService apiService, String apiKey, double lat, double lon)
+            throws IOException {
+        WeatherSnapshot.Builder builder = new WeatherSnapshot.Builder(lat, lon);
+
+        Response<WeatherResponse> weather = apiService.getWeather(lat, lon, apiKey, UNITS).execute();
+        Double temperature = temperatureOf(weather);
+        if (temperature != null) {
+            builder.temperature(temperature, fetchedAtOf(weather), freshnessOf(weather));
+        }
+
+        Response<AqiResponse> airQuality = apiService.getAqi(lat, lon, apiKey).execute();
+        Integer aqi = aqiOf(airQuality);
+        if (aqi != null) {
+            builder.aqi(aqi, fetchedAtOf(airQuality), freshnessOf(airQuality));
+        }
+
+        Response<ForecastResponse> forecastResponse =
+                apiService.getForecast(lat, lon, apiKey, UNITS, FORECAST_COUNT).execute();
+        ForecastSeries forecast = forecastOf(forecastResponse);
+        if (forecast != null) {
+            builder.forecast(forecast, fetchedAtOf(forecastResponse), freshnessOf(forecastResponse));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the most recently stored location, for background refreshes
+     * Must not be called on the main thread
+     * @return Snapshot whose coordinates are the last known location, or null
+     */
+    public WeatherSnapshot getLastKnownBlocking() {
+        try {
+            return executors.diskIO().submit(weatherDAO::getMostRecentSnapshot).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Failed to read last known snapshot: " + e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Get the gate that decides whether a fix triggers network work
+     */
+    public RefreshGate getRefreshGate() {
+        return refreshGate;
+    }
+
+    /**
+     * Get the latest snapshot held in memory for a location, if any
+     */
+    public WeatherSnapshot getLatest(double lat, double lon) {
+        return latestByCell.get(LocationCell.key(lat, lon));
+    }
+
+    static Double temperatureOf(Response<WeatherResponse> response) {
+        WeatherResponse body = response.body();
+        if (response.isSuccessful() && body != null && body.getMain() != null) {
+            return body.getMain().getTemp();
+        }
+        return null;
+    }
+
+    static Integer aqiOf(Response<AqiResponse> response) {
+        AqiResponse body = response.body();
+        if (response.isSuccessful() && body != null && body.getList() != null
+                && !body.getList().isEmpty() && body.getList().get(0).getMain() != null) {
+            return body.getList().get(0).getMain().getAqi();
+        }
+        return null;
+    }
+
+    private static ForecastSeries forecastOf(Response<ForecastResponse> response) {
+        ForecastResponse body = response.body();
+        if (response.isSuccessful() && body != null && !body.getSeries().isEmpty()) {
+            return body.getSeries();
+        }
+        return null;
+    }
+
+    /**
+     * Freshness of a response body, from the status WeatherResponseCache puts on it
+     * Only bodies fetched from upstream by this call are FRESH and go into history
+     */
+    static WeatherSnapshot.Freshness freshnessOf(Response<?> response) {
+        okhttp3.Response raw = response.raw();
+        if (WeatherResponseCache.isStale(raw)) {
+            return WeatherSnapshot.Freshness.STALE;
+        }
+        if (WeatherResponseCache.isHit(raw)) {
+            return WeatherSnapshot.Freshness.CACHED;
+        }
+        return WeatherSnapshot.Freshness.FRESH;
+    }
+
+    /**
+     * When a response body was fetched from upstream; for cached bodies that is when they were stored
+     */
+    static long fetchedAtOf(Response<?> response) {
+        return WeatherResponseCache.fetchedAt(response.raw());
+    }
+
+    /**
+     * Write a snapshot to the history store and compact it now and then
+     */
+    private Future<?> persist(WeatherSnapshot snapshot) {
+        return executors.diskIO().submit(() -> {
+            weatherDAO.saveSnapshot(snapshot);
+
+            long now = System.currentTimeMillis();
+            if (now - lastCompactionTime > COMPACTION_INTERVAL_MILLIS) {
+                int deleted = weatherDAO.compact(now);
+                lastCompactionTime = now;
+                Log.d(TAG, "Compacted weather history, removed " + deleted + " rows");
+            }
+        });
+    }
+
+    /**
+     * Join state for one load; all callbacks run on the main thread
+     */
+    private class FanOut {
+        private final double lat;
+        private final double lon;
+        private final String cell;
+        private final Listener listener;
+        private final Runnable deadline = this::onDeadline;
+        private int pending = 3;
+        private boolean emitted = false;
+
+        private Double temperature;
+        private long temperatureTime;
+        private WeatherSnapshot.Freshness temperatureFreshness;
+        private Integer aqi;
+        private long aqiTime;
+        private WeatherSnapshot.Freshness aqiFreshness;
+        private ForecastSeries forecast;
+        private long forecastTime;
+        private WeatherSnapshot.Freshness forecastFreshness;
+
+        FanOut(double lat, double lon, Listener listener) {
+            this.lat = lat;
+            this.lon = lon;
+            this.cell = LocationCell.key(lat, lon);
+            this.listener = listener;
+        }
+
+        /**
+         * Emit a snapshot read from the history store, unless the network won the race
+         */
+        void offerStored(WeatherSnapshot stored) {
+            if (emitted || latestByCell.containsKey(cell)) return;
+            latestByCell.put(cell, stored);
+            listener.onSnapshot(stored);
+        }
+
+        void setTemperature(double value, Response<?> response) {
+            temperature = value;
+            temperatureTime = fetchedAtOf(response);
+            temperatureFreshness = freshnessOf(response);
+        }
+
+        void setAqi(int value, Response<?> response) {
+            aqi = value;
+            aqiTime = fetchedAtOf(response);
+            aqiFreshness = freshnessOf(response);
+        }
+
+        void setForecast(ForecastSeries value, Response<?> response) {
+            forecast = value;
+            forecastTime = fetchedAtOf(response);
+            forecastFreshness = freshnessOf(response);
+        }
+
+        void arrive() {
+            pending--;
+            if (pending == 0) {
+                mainHandler.removeCallbacks(deadline);
+                emit();
+            } else if (emitted) {
+                // A late result after the deadline - publish it as a follow-up
+                emit();
+            }
+        }
+
+        void onDeadline() {
+            if (!emitted && pending > 0) {
+                Log.w(TAG, "Deadline reached with " + pending + " call(s) outstanding");
+                emit();
+            }
+        }
+
+        private void emit() {
+            long now = System.currentTimeMillis();
+            WeatherSnapshot.Builder builder = new WeatherSnapshot.Builder(lat, lon).createdAt(now);
+            if (temperature != null) {
+                builder.temperature(temperature, temperatureTime, temperatureFreshness);
+            }
+            if (aqi != null) {
+                builder.aqi(aqi, aqiTime, aqiFreshness);
+            }
+            if (forecast != null) {
+                builder.forecast(forecast, forecastTime, forecastFreshness);
+            }
+
+            WeatherSnapshot snapshot = builder.fillFrom(latestByCell.get(cell)).build();
+            latestByCell.put(cell, snapshot);
+
+            emitted = true;
+            listener.onSnapshot(snapshot);
+
+            // Persist once every call has completed so rows are written only once;
+            // WeatherDAO only stores FRESH fields, so cache-served ones are not recorded again
+            if (pending == 0) {
+                lastFetched = snapshot;
+                persist(snapshot);
+            }
+        }
+    }
+}
@@ -2,6 +2,10 @@ package com.example.teragaurd;
 
 import com.google.gson.annotations.SerializedName;
 
+/**
+ * Current weather response; decoded by WeatherResponseAdapter, the
+ * SerializedName annotations only document the JSON field names
+ */
 public class WeatherResponse {
     @SerializedName("main")
     private Main main;
@@ -10,6 +14,10 @@ public class WeatherResponse {
         return main;
     }
 
+    void setMain(Main main) {
+        this.main = main;
+    }
+
     public static class Main {
         @SerializedName("temp")
         private double temp;
@@ -17,5 +25,9 @@ public class WeatherResponse {
         public double getTemp() {
             return temp;
         }
+
+        void setTemp(double temp) {
+            this.temp = temp;
+        }
     }
 }
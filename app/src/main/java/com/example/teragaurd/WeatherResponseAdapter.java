@@ -0,0 +1,66 @@
+package com.example.teragaurd;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Hand-written Gson adapter for WeatherResponse
+ * Reads only main.temp and skips the rest of the payload; no reflection,
+ * so the first decode is as fast as later ones and R8 may rename the model
+ */
+public class WeatherResponseAdapter extends TypeAdapter<WeatherResponse> {
+
+    @Override
+    public WeatherResponse read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        WeatherResponse response = new WeatherResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("main".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_OBJECT) {
+                response.setMain(readMain(in));
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return response;
+    }
+
+    private static WeatherResponse.Main readMain(JsonReader in) throws IOException {
+        WeatherResponse.Main main = new WeatherResponse.Main();
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("temp".equals(in.nextName()) && in.peek() == JsonToken.NUMBER) {
+                main.setTemp(in.nextDouble());
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return main;
+    }
+
+    @Override
+    public void write(JsonWriter out, WeatherResponse response) throws IOException {
+        if (response == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (response.getMain() != null) {
+            out.name("main").beginObject();
+            out.name("temp").value(response.getMain().getTemp());
+            out.endObject();
+        }
+        out.endObject();
+    }
+}
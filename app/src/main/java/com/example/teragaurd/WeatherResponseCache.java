@@ -0,0 +1,374 @@
+package com.example.teragaurd;
+
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.ByteString;
+
+/**
+ * Bounded on-disk response cache for the OpenWeatherMap endpoints
+ * Installed as an OkHttp interceptor; each endpoint has its own TTL and
+ * lat/lon are rounded so nearby fixes resolve to the same entry.
+ * When the upstream call fails (network error, open circuit, 5xx) an expired
+ * entry up to MAX_STALE_MILLIS old is served instead
+ */
+public class WeatherResponseCache implements Interceptor {
+
+    private static final String TAG = "WeatherResponseCache";
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    public static final String HEADER_CACHE_STATUS = "X-TeraGaurd-Cache";
+    public static final String HEADER_STORED_AT = "X-TeraGaurd-Stored-At";
+
+    // Values of HEADER_CACHE_STATUS
+    public static final String STATUS_HIT = "hit";      // Served from an entry within its TTL
+    public static final String STATUS_MISS = "miss";    // Fetched from upstream by this call
+    public static final String STATUS_STALE = "stale";  // Expired entry served because upstream failed
+    private static final long MAX_STALE_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    private final File directory;
+    private final long maxBytes;
+    private final int precision;
+    private final Map<String, Long> ttlByEndpoint = new HashMap<>();
+    private final LongSupplier clock;
+
+    // Statistics
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+
+    private long currentSize = -1;
+
+    /**
+     * @param directory Directory to hold cache entries (created if missing)
+     * @param maxBytes Upper bound for the total size of all entries
+     * @param precision Decimal places kept when rounding lat/lon
+     */
+    public WeatherResponseCache(File directory, long maxBytes, int precision) {
+        this(directory, maxBytes, precision, System::currentTimeMillis);
+    }
+
+    /**
+     * Use a specific wall clock, for tests
+     */
+    WeatherResponseCache(File directory, long maxBytes, int precision, LongSupplier clock) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.precision = precision;
+        this.clock = clock;
+    }
+
+    /**
+     * Set how long responses from an endpoint stay fresh
+     * @param endpoint Last path segment of the endpoint, e.g. "weather"
+     * @param ttlMillis Time to live in milliseconds
+     * @return this cache, for chaining
+     */
+    public WeatherResponseCache setTtl(String endpoint, long ttlMillis) {
+        synchronized (ttlByEndpoint) {
+            ttlByEndpoint.put(endpoint, ttlMillis);
+        }
+        return this;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = endpointOf(request.url());
+        Long ttl;
+        synchronized (ttlByEndpoint) {
+            ttl = ttlByEndpoint.get(endpoint);
+        }
+        if (ttl == null || !"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        // Round coordinates so the upstream response matches the cache cell
+        Request quantized = request.newBuilder().url(quantize(request.url(), precision)).build();
+        File entry = new File(directory, keyFor(quantized.url()));
+
+        Entry cached = read(entry, ttl);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            entry.setLastModified(System.currentTimeMillis()); // LRU touch
+            return cachedResponse(quantized, cached, STATUS_HIT);
+        }
+
+        missCount.incrementAndGet();
+        Response response;
+        try {
+            response = chain.proceed(quantized);
+        } catch (IOException e) {
+            Entry stale = read(entry, MAX_STALE_MILLIS);
+            if (stale == null) throw e;
+            Log.w(TAG, "Serving stale " + endpoint + " after: " + e.getMessage());
+            staleCount.incrementAndGet();
+            return cachedResponse(quantized, stale, STATUS_STALE);
+        }
+
+        if (!response.isSuccessful() || response.body() == null) {
+            if (response.code() >= 500 || response.code() == 429) {
+                Entry stale = read(entry, MAX_STALE_MILLIS);
+                if (stale != null) {
+                    response.close();
+                    staleCount.incrementAndGet();
+                    return cachedResponse(quantized, stale, STATUS_STALE);
+                }
+            }
+            return response;
+        }
+
+        byte[] body = response.body().bytes();
+        long storedAt = clock.getAsLong();
+        write(entry, storedAt, body);
+        return response.newBuilder()
+                .body(ResponseBody.create(response.body().contentType(), body))
+                .header(HEADER_CACHE_STATUS, STATUS_MISS)
+                .header(HEADER_STORED_AT, Long.toString(storedAt))
+                .build();
+    }
+
+    /**
+     * Check whether a response was served from an expired entry after upstream failed
+     * @param response Raw OkHttp response, e.g. retrofit2.Response.raw()
+     */
+    public static boolean isStale(Response response) {
+        return STATUS_STALE.equals(response.header(HEADER_CACHE_STATUS));
+    }
+
+    /**
+     * Check whether a response was served from an entry within its TTL
+     * @param response Raw OkHttp response, e.g. retrofit2.Response.raw()
+     */
+    public static boolean isHit(Response response) {
+        return STATUS_HIT.equals(response.header(HEADER_CACHE_STATUS));
+    }
+
+    /**
+     * Get when a response's body was fetched from upstream
+     * For a hit or stale response that is when the entry was stored, not now
+     * @param response Raw OkHttp response, e.g. retrofit2.Response.raw()
+     * @return Wall-clock time in milliseconds
+     */
+    public static long fetchedAt(Response response) {
+        String storedAt = response.header(HEADER_STORED_AT);
+        if (storedAt != null) {
+            try {
+                return Long.parseLong(storedAt);
+            } catch (NumberFormatException e) {
+                // Fall through to the receive time
+            }
+        }
+        return response.receivedResponseAtMillis();
+    }
+
+    /**
+     * Remove every entry from the cache
+     */
+    public synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        currentSize = 0;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * Get a one-line summary of cache statistics for logs and debug output
+     */
+    public String getStats() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        int hitRate = total == 0 ? 0 : (int) (hits * 100 / total);
+        return String.format(Locale.US, "hits=%d misses=%d evictions=%d stale=%d hitRate=%d%%",
+                hits, missCount.get(), evictionCount.get(), staleCount.get(), hitRate);
+    }
+
+    // ==================== INTERNALS ====================
+
+    private static String endpointOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        return segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+    }
+
+    /**
+     * Round the lat/lon query parameters of a URL to the given precision
+     */
+    static HttpUrl quantize(HttpUrl url, int precision) {
+        HttpUrl.Builder builder = url.newBuilder();
+        String lat = url.queryParameter("lat");
+        String lon = url.queryParameter("lon");
+        try {
+            if (lat != null) {
+                builder.setQueryParameter("lat", LocationCell.format(Double.parseDouble(lat), precision));
+            }
+            if (lon != null) {
+                builder.setQueryParameter("lon", LocationCell.format(Double.parseDouble(lon), precision));
+            }
+        } catch (NumberFormatException e) {
+            return url;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Cache key is the endpoint plus its sorted query, minus the API key
+     */
+    static String keyFor(HttpUrl url) {
+        List<String> names = new ArrayList<>(url.queryParameterNames());
+        Collections.sort(names);
+        StringBuilder key = new StringBuilder(url.encodedPath());
+        for (String name : names) {
+            if ("appid".equals(name)) continue;
+            key.append('&').append(name).append('=').append(url.queryParameter(name));
+        }
+        return ByteString.encodeUtf8(key.toString()).md5().hex();
+    }
+
+    private Response cachedResponse(Request request, Entry cached, String status) {
+        long now = clock.getAsLong();
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .header(HEADER_CACHE_STATUS, status)
+                .header(HEADER_STORED_AT, Long.toString(cached.storedAt))
+                .body(ResponseBody.create(JSON, cached.body))
+                .sentRequestAtMillis(now)
+                .receivedResponseAtMillis(now)
+                .build();
+    }
+
+    /**
+     * Read an entry if it exists and is younger than maxAgeMillis
+     * Each entry is an 8-byte store timestamp followed by the raw body
+     */
+    private Entry read(File entry, long maxAgeMillis) {
+        if (!entry.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(entry))) {
+            long storedAt = in.readLong();
+            if (clock.getAsLong() - storedAt > maxAgeMillis) {
+                return null;
+            }
+            byte[] body = new byte[(int) entry.length() - 8];
+            in.readFully(body);
+            return new Entry(storedAt, body);
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache entry: " + e.getMessage());
+            entry.delete();
+            return null;
+        }
+    }
+
+    private synchronized void write(File entry, long storedAt, byte[] body) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            Log.e(TAG, "Cannot create cache directory " + directory);
+            return;
+        }
+        ensureSizeKnown();
+
+        long previous = entry.exists() ? entry.length() : 0;
+        File tmp = new File(directory, entry.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp))) {
+            out.writeLong(storedAt);
+            out.write(body);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write cache entry: " + e.getMessage());
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(entry)) {
+            tmp.delete();
+            return;
+        }
+
+        currentSize += entry.length() - previous;
+        trimToSize();
+    }
+
+    private void ensureSizeKnown() {
+        if (currentSize >= 0) return;
+        currentSize = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                currentSize += file.length();
+            }
+        }
+    }
+
+    /**
+     * Evict least recently used entries until the cache fits in maxBytes
+     */
+    private void trimToSize() {
+        if (currentSize <= maxBytes) return;
+
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        for (File file : files) {
+            if (currentSize <= maxBytes) break;
+            long length = file.length();
+            if (file.delete()) {
+                currentSize -= length;
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A cache entry read back from disk
+     */
+    private static final class Entry {
+        final long storedAt;
+        final byte[] body;
+
+        Entry(long storedAt, byte[] body) {
+            this.storedAt = storedAt;
+            this.body = body;
+        }
+    }
+}
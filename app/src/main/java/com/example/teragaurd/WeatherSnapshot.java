@@ -0,0 +1,160 @@
+package com.example.teragaurd;
+
+/**
+ * Immutable snapshot of weather, AQI and forecast for one location
+ * Each field carries its own timestamp and freshness so the UI can render
+ * the whole dashboard at once even when one endpoint failed
+ */
+public class WeatherSnapshot {
+
+    /**
+     * Freshness of a single snapshot field
+     */
+    public enum Freshness {
+        FRESH,   // Fetched from the network in the round that produced this snapshot
+        CACHED,  // Served from the response cache within its TTL; already in history
+        STALE,   // Carried over from an earlier snapshot, or served from an expired cache entry
+        MISSING  // Never successfully fetched
+    }
+
+    private final double latitude;
+    private final double longitude;
+    private final long createdAt;
+
+    private final double temperature;
+    private final long temperatureTime;
+    private final Freshness temperatureFreshness;
+
+    private final int aqi;
+    private final long aqiTime;
+    private final Freshness aqiFreshness;
+
+    private final ForecastSeries forecast;
+    private final long forecastTime;
+    private final Freshness forecastFreshness;
+
+    private WeatherSnapshot(Builder builder) {
+        this.latitude = builder.latitude;
+        this.longitude = builder.longitude;
+        this.createdAt = builder.createdAt;
+        this.temperature = builder.temperature;
+        this.temperatureTime = builder.temperatureTime;
+        this.temperatureFreshness = builder.temperatureFreshness;
+        this.aqi = builder.aqi;
+        this.aqiTime = builder.aqiTime;
+        this.aqiFreshness = builder.aqiFreshness;
+        this.forecast = builder.forecast;
+        this.forecastTime = builder.forecastTime;
+        this.forecastFreshness = builder.forecastFreshness;
+    }
+
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public long getCreatedAt() { return createdAt; }
+
+    public boolean hasTemperature() { return temperatureFreshness != Freshness.MISSING; }
+    public double getTemperature() { return temperature; }
+    public long getTemperatureTime() { return temperatureTime; }
+    public Freshness getTemperatureFreshness() { return temperatureFreshness; }
+
+    public boolean hasAqi() { return aqiFreshness != Freshness.MISSING; }
+    public int getAqi() { return aqi; }
+    public long getAqiTime() { return aqiTime; }
+    public Freshness getAqiFreshness() { return aqiFreshness; }
+
+    public boolean hasForecast() { return forecastFreshness != Freshness.MISSING; }
+    public ForecastSeries getForecast() { return forecast; }
+    public long getForecastTime() { return forecastTime; }
+    public Freshness getForecastFreshness() { return forecastFreshness; }
+
+    /**
+     * Check whether every field is current: fetched in the latest round or still within its TTL
+     */
+    public boolean isComplete() {
+        return isCurrent(temperatureFreshness) && isCurrent(aqiFreshness) && isCurrent(forecastFreshness);
+    }
+
+    /**
+     * Check whether any field is current, as opposed to carried over or missing
+     */
+    public boolean hasCurrentData() {
+        return isCurrent(temperatureFreshness) || isCurrent(aqiFreshness) || isCurrent(forecastFreshness);
+    }
+
+    private static boolean isCurrent(Freshness freshness) {
+        return freshness == Freshness.FRESH || freshness == Freshness.CACHED;
+    }
+
+    /**
+     * Builder for WeatherSnapshot; fields left unset are MISSING
+     */
+    public static class Builder {
+        private final double latitude;
+        private final double longitude;
+        private long createdAt = System.currentTimeMillis();
+
+        private double temperature;
+        private long temperatureTime;
+        private Freshness temperatureFreshness = Freshness.MISSING;
+
+        private int aqi;
+        private long aqiTime;
+        private Freshness aqiFreshness = Freshness.MISSING;
+
+        private ForecastSeries forecast = ForecastSeries.EMPTY;
+        private long forecastTime;
+        private Freshness forecastFreshness = Freshness.MISSING;
+
+        public Builder(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public Builder createdAt(long createdAt) {
+            this.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder temperature(double temperature, long time, Freshness freshness) {
+            this.temperature = temperature;
+            this.temperatureTime = time;
+            this.temperatureFreshness = freshness;
+            return this;
+        }
+
+        public Builder aqi(int aqi, long time, Freshness freshness) {
+            this.aqi = aqi;
+            this.aqiTime = time;
+            this.aqiFreshness = freshness;
+            return this;
+        }
+
+        public Builder forecast(ForecastSeries forecast, long time, Freshness freshness) {
+            this.forecast = forecast;
+            this.forecastTime = time;
+            this.forecastFreshness = freshness;
+            return this;
+        }
+
+        /**
+         * Copy any field that is still MISSING from an earlier snapshot, marking it STALE
+         */
+        public Builder fillFrom(WeatherSnapshot previous) {
+            if (previous == null) return this;
+            if (temperatureFreshness == Freshness.MISSING && previous.hasTemperature()) {
+                temperature(previous.temperature, previous.temperatureTime, Freshness.STALE);
+            }
+            if (aqiFreshness == Freshness.MISSING && previous.hasAqi()) {
+                aqi(previous.aqi, previous.aqiTime, Freshness.STALE);
+            }
+            if (forecastFreshness == Freshness.MISSING && previous.hasForecast()) {
+                forecast(previous.forecast, previous.forecastTime, Freshness.STALE);
+            }
+            return this;
+        }
+
+        public WeatherSnapshot build() {
+            return new WeatherSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ServerSocketFactory;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the shared NetworkModule client with the old pattern of one
+ * Retrofit (and so one connection pool) per fetch, against a local mock
+ * server. Counts new connections (connectStart) against connections handed
+ * to calls (connectionAcquired) and prints the wall time of each run.
+ * The mock server speaks plain HTTP, so the saving shown is the TCP connect
+ * only; on device each avoided connection also skips a TLS handshake
+ */
+public class ConnectionReuseBenchmarkTest {
+
+    private static final int CALLS = 50;
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("{\"main\":{\"temp\":21.5}}");
+            }
+        });
+        server.setServerSocketFactory(new NoDelayServerSocketFactory());
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void sharedClient_reusesPooledConnection() throws IOException {
+        ConnectionCounter counter = new ConnectionCounter();
+        ApiService apiService = newApiService(NetworkModule.newClientBuilder()
+                .eventListener(counter)
+                .build());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            assertTrue(apiService.getWeather(12.97, 77.59, "test-key", WeatherRepository.UNITS)
+                    .execute().isSuccessful());
+        }
+        report("shared client", counter, System.nanoTime() - start);
+
+        assertEquals(CALLS, counter.acquired.get());
+        assertEquals(1, counter.connects.get());
+    }
+
+    @Test
+    public void clientPerCall_connectsEveryTime() throws IOException {
+        ConnectionCounter counter = new ConnectionCounter();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            // What MapActivity and MainActivity used to do on every fetch
+            ApiService apiService = newApiService(new OkHttpClient.Builder()
+                    .eventListener(counter)
+                    .build());
+            assertTrue(apiService.getWeather(12.97, 77.59, "test-key", WeatherRepository.UNITS)
+                    .execute().isSuccessful());
+        }
+        report("client per call", counter, System.nanoTime() - start);
+
+        assertEquals(CALLS, counter.acquired.get());
+        assertEquals(CALLS, counter.connects.get());
+    }
+
+    // ==================== HELPERS ====================
+
+    private ApiService newApiService(OkHttpClient client) {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .create();
+        return new Retrofit.Builder()
+                .baseUrl(server.url("/data/2.5/"))
+                .client(client)
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(ApiService.class);
+    }
+
+    private static void report(String name, ConnectionCounter counter, long elapsedNanos) {
+        System.out.println(String.format(Locale.US, "%-16s calls=%d connectStart=%d connectionAcquired=%d total=%d ms",
+                name, CALLS, counter.connects.get(), counter.acquired.get(), elapsedNanos / 1000000));
+    }
+
+    /**
+     * MockWebServer writes the status line, headers and body separately; with
+     * Nagle's algorithm on, a kept-alive connection then waits for the client's
+     * delayed ACK on every response, which a real server does not cause
+     */
+    private static class NoDelayServerSocketFactory extends ServerSocketFactory {
+        @Override
+        public ServerSocket createServerSocket() throws IOException {
+            return new ServerSocket() {
+                @Override
+                public Socket accept() throws IOException {
+                    Socket socket = super.accept();
+                    socket.setTcpNoDelay(true);
+                    return socket;
+                }
+            };
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int port, int backlog, InetAddress address) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Counts new connections and connection acquisitions across calls
+     */
+    private static class ConnectionCounter extends EventListener {
+        final AtomicInteger connects = new AtomicInteger();
+        final AtomicInteger acquired = new AtomicInteger();
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connects.incrementAndGet();
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            acquired.incrementAndGet();
+        }
+    }
+}
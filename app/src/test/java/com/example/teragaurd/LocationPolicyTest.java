@@ -0,0 +1,192 @@
+package com.example.teragaurd;
+
+import com.google.android.gms.location.Priority;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays simulated fix tracks through DisplacementTracker and checks the
+ * request LocationPolicy picks for each (stationary, walking, driving, SOS,
+ * low battery, background)
+ */
+public class LocationPolicyTest {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long FIX_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    // Bengaluru
+    private static final double START_LAT = 12.9716;
+    private static final double START_LON = 77.5946;
+
+    // Roughly one degree of latitude
+    private static final double METERS_PER_DEGREE = 111195.0;
+
+    private DisplacementTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new DisplacementTracker(WINDOW_MILLIS);
+    }
+
+    @Test
+    public void stationary_stretchesWeatherInterval() {
+        replayTrack(0.0, 10);
+
+        LocationPolicy.Decision decision = decide(LocationPolicy.Purpose.WEATHER, true, 80, false);
+        assertEquals(Priority.PRIORITY_BALANCED_POWER_ACCURACY, decision.getPriority());
+        assertEquals(TimeUnit.MINUTES.toMillis(3), decision.getIntervalMillis());
+        assertTrue(decision.getMaxUpdateDelayMillis() > decision.getIntervalMillis());
+    }
+
+    @Test
+    public void gpsJitterWhileStationary_staysStationary() {
+        // +-10 m of noise around a fixed point
+        for (int i = 0; i < 20; i++) {
+            double jitter = (i % 2 == 0 ? 10 : -10) / METERS_PER_DEGREE;
+            tracker.add(i * FIX_INTERVAL_MILLIS, START_LAT + jitter, START_LON);
+        }
+
+        assertTrue(tracker.displacementMeters() < LocationPolicy.STATIONARY_METERS);
+        assertEquals(TimeUnit.MINUTES.toMillis(3),
+                decide(LocationPolicy.Purpose.WEATHER, true, 80, false).getIntervalMillis());
+    }
+
+    @Test
+    public void walking_usesDefaultWeatherInterval() {
+        // ~1.4 m/s over five minutes is ~420 m
+        replayTrack(1.4, 10);
+
+        float displacement = tracker.displacementMeters();
+        assertTrue(displacement >= LocationPolicy.STATIONARY_METERS);
+        assertTrue(displacement < LocationPolicy.MOVING_METERS);
+
+        LocationPolicy.Decision decision = decide(LocationPolicy.Purpose.WEATHER, true, 80, false);
+        assertEquals(Priority.PRIORITY_BALANCED_POWER_ACCURACY, decision.getPriority());
+        assertEquals(TimeUnit.MINUTES.toMillis(1), decision.getIntervalMillis());
+    }
+
+    @Test
+    public void driving_shortensWeatherIntervalWithoutGps() {
+        // ~15 m/s
+        replayTrack(15.0, 10);
+
+        assertTrue(tracker.displacementMeters() >= LocationPolicy.MOVING_METERS);
+
+        LocationPolicy.Decision decision = decide(LocationPolicy.Purpose.WEATHER, true, 80, false);
+        assertEquals(Priority.PRIORITY_BALANCED_POWER_ACCURACY, decision.getPriority());
+        assertEquals(TimeUnit.SECONDS.toMillis(30), decision.getIntervalMillis());
+    }
+
+    @Test
+    public void drivingThenParked_fallsBackToStationaryOnceWindowPasses() {
+        replayTrack(15.0, 10);
+        long parkedAt = 10 * FIX_INTERVAL_MILLIS;
+        double[] last = positionAfter(15.0, 9);
+        for (int i = 1; i <= 12; i++) {
+            tracker.add(parkedAt + i * FIX_INTERVAL_MILLIS, last[0], last[1]);
+        }
+
+        assertEquals(0f, tracker.displacementMeters(), 1f);
+        assertEquals(TimeUnit.MINUTES.toMillis(3),
+                decide(LocationPolicy.Purpose.WEATHER, true, 80, false).getIntervalMillis());
+    }
+
+    @Test
+    public void sos_isTheOnlyHighAccuracyCase() {
+        replayTrack(1.4, 10);
+
+        LocationPolicy.Decision sos = decide(LocationPolicy.Purpose.SOS, false, 80, false);
+        assertEquals(Priority.PRIORITY_HIGH_ACCURACY, sos.getPriority());
+        assertEquals(TimeUnit.SECONDS.toMillis(5), sos.getIntervalMillis());
+        assertEquals(0, sos.getMaxUpdateDelayMillis());
+
+        for (boolean foreground : new boolean[]{true, false}) {
+            for (int battery : new int[]{5, 50, 100}) {
+                assertNotEquals(Priority.PRIORITY_HIGH_ACCURACY,
+                        decide(LocationPolicy.Purpose.WEATHER, foreground, battery, false).getPriority());
+            }
+        }
+    }
+
+    @Test
+    public void sosStationary_backsOffButKeepsHighAccuracy() {
+        replayTrack(0.0, 10);
+
+        LocationPolicy.Decision sos = decide(LocationPolicy.Purpose.SOS, true, 80, false);
+        assertEquals(Priority.PRIORITY_HIGH_ACCURACY, sos.getPriority());
+        assertEquals(TimeUnit.SECONDS.toMillis(15), sos.getIntervalMillis());
+    }
+
+    @Test
+    public void lowBattery_stretchesIntervalsUnlessCharging() {
+        replayTrack(1.4, 10);
+
+        LocationPolicy.Decision low = decide(LocationPolicy.Purpose.WEATHER, true, 10, false);
+        assertEquals(Priority.PRIORITY_LOW_POWER, low.getPriority());
+        assertEquals(TimeUnit.MINUTES.toMillis(2), low.getIntervalMillis());
+
+        LocationPolicy.Decision charging = decide(LocationPolicy.Purpose.WEATHER, true, 10, true);
+        assertEquals(decide(LocationPolicy.Purpose.WEATHER, true, 80, false), charging);
+
+        LocationPolicy.Decision sosLow = decide(LocationPolicy.Purpose.SOS, true, 10, false);
+        assertEquals(Priority.PRIORITY_HIGH_ACCURACY, sosLow.getPriority());
+        assertEquals(TimeUnit.SECONDS.toMillis(20), sosLow.getIntervalMillis());
+    }
+
+    @Test
+    public void unknownBattery_isNotTreatedAsLow() {
+        replayTrack(1.4, 10);
+
+        assertEquals(decide(LocationPolicy.Purpose.WEATHER, true, 80, false),
+                decide(LocationPolicy.Purpose.WEATHER, true, -1, false));
+    }
+
+    @Test
+    public void background_batchesLowPowerFixesEvenWhileDriving() {
+        replayTrack(15.0, 10);
+
+        LocationPolicy.Decision decision = decide(LocationPolicy.Purpose.WEATHER, false, 80, false);
+        assertEquals(Priority.PRIORITY_LOW_POWER, decision.getPriority());
+        assertEquals(TimeUnit.MINUTES.toMillis(15), decision.getIntervalMillis());
+        assertTrue(decision.getMaxUpdateDelayMillis() >= decision.getIntervalMillis());
+    }
+
+    @Test
+    public void sameInputs_giveEqualDecisions() {
+        // LocationEngine only re-requests updates when the decision changes
+        replayTrack(1.4, 10);
+        LocationPolicy.Decision first = decide(LocationPolicy.Purpose.WEATHER, true, 80, false);
+        tracker.add(10 * FIX_INTERVAL_MILLIS, positionAfter(1.4, 10)[0], START_LON);
+        LocationPolicy.Decision second = decide(LocationPolicy.Purpose.WEATHER, true, 80, false);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Feed fixes heading due north at a constant speed, one every FIX_INTERVAL_MILLIS
+     */
+    private void replayTrack(double metersPerSecond, int fixes) {
+        for (int i = 0; i < fixes; i++) {
+            double[] position = positionAfter(metersPerSecond, i);
+            tracker.add(i * FIX_INTERVAL_MILLIS, position[0], position[1]);
+        }
+    }
+
+    private static double[] positionAfter(double metersPerSecond, int fixIndex) {
+        double meters = metersPerSecond * fixIndex * FIX_INTERVAL_MILLIS / 1000.0;
+        return new double[]{START_LAT + meters / METERS_PER_DEGREE, START_LON};
+    }
+
+    private LocationPolicy.Decision decide(LocationPolicy.Purpose purpose, boolean foreground,
+                                           int batteryPercent, boolean charging) {
+        return LocationPolicy.decide(purpose, foreground, tracker.displacementMeters(), batteryPercent, charging);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.teragaurd;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs calls through NetworkMetrics and WeatherResponseCache wired as in
+ * NetworkModule, checking that cache hits are timed under PHASE_CACHED and
+ * only upstream calls land in PHASE_TOTAL
+ */
+public class NetworkMetricsTest {
+
+    private static final String WEATHER_JSON = "{\"main\":{\"temp\":21.5}}";
+
+    private MockWebServer server;
+    private File directory;
+    private WeatherResponseCache cache;
+    private NetworkMetrics metrics;
+    private OkHttpClient client;
+    private long now = 1700000000000L;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        directory = Files.createTempDirectory("weather-http").toFile();
+        cache = new WeatherResponseCache(directory, 1024 * 1024, LocationCell.DEFAULT_PRECISION, () -> now)
+                .setTtl("weather", TimeUnit.MINUTES.toMillis(10));
+        metrics = new NetworkMetrics();
+        client = new OkHttpClient.Builder()
+                .eventListenerFactory(metrics.eventListenerFactory())
+                .addInterceptor(metrics.cacheStatusInterceptor())
+                .addInterceptor(cache)
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        cache.clear();
+        directory.delete();
+    }
+
+    @Test
+    public void cacheHits_areKeptOutOfTotal() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        fetch();
+        now += TimeUnit.MINUTES.toMillis(1);
+        fetch();
+        fetch();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, metrics.histogramFor("weather", NetworkMetrics.PHASE_TOTAL).getCount());
+        assertEquals(2, metrics.histogramFor("weather", NetworkMetrics.PHASE_CACHED).getCount());
+    }
+
+    @Test
+    public void expiredEntry_isTimedAsUpstreamCall() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        fetch();
+        now += TimeUnit.HOURS.toMillis(1);
+        fetch();
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, metrics.histogramFor("weather", NetworkMetrics.PHASE_TOTAL).getCount());
+        assertEquals(0, metrics.histogramFor("weather", NetworkMetrics.PHASE_CACHED).getCount());
+    }
+
+    private void fetch() throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url("/data/2.5/weather?lat=12.97&lon=77.59&appid=test-key"))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(WEATHER_JSON, response.body().string());
+        }
+    }
+}
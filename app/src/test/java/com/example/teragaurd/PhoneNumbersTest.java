@@ -0,0 +1,47 @@
+package com.example.teragaurd;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the digit forms ContactDAO stores and queries phone numbers by
+ */
+public class PhoneNumbersTest {
+
+    @Test
+    public void normalize_keepsOnlyDigits() {
+        assertEquals("919845012345", PhoneNumbers.normalize("+91 98450-12345"));
+        assertEquals("112", PhoneNumbers.normalize("(112)"));
+        assertEquals("", PhoneNumbers.normalize("Unknown"));
+        assertEquals("", PhoneNumbers.normalize(null));
+    }
+
+    @Test
+    public void reversed_turnsSuffixIntoPrefix() {
+        String saved = PhoneNumbers.reversed("+91 98450 12345");
+        String local = PhoneNumbers.reversed("98450-12345");
+        assertEquals("5432105489", local);
+        assertTrue(saved.startsWith(local));
+    }
+
+    @Test
+    public void prefixUpperBound_coversExactlyThePrefixRange() {
+        String prefix = "54321";
+        String upper = PhoneNumbers.prefixUpperBound(prefix);
+        assertEquals("54322", upper);
+
+        assertTrue(prefix.compareTo(upper) < 0);
+        assertTrue("5432199999".compareTo(upper) < 0);
+        assertTrue("54322".compareTo(upper) >= 0);
+        assertTrue("5432".compareTo(prefix) < 0);
+    }
+
+    @Test
+    public void prefixUpperBound_afterNine_sortsAboveEveryDigit() {
+        String upper = PhoneNumbers.prefixUpperBound("19");
+        assertTrue("19".compareTo(upper) < 0);
+        assertTrue("199999".compareTo(upper) < 0);
+        assertTrue("2".compareTo(upper) > 0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.teragaurd;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bundled places.idx against a brute-force scan and reports lookup
+ * latency and heap cost on the host JVM. Regenerate the asset with
+ * tools/placeindex/PlaceIndexBuilder.java if the format changes
+ */
+public class PlaceIndexTest {
+
+    // Unit tests run from the app module directory
+    private static final File INDEX_FILE = new File("src/main/assets/" + PlaceIndex.ASSET_NAME);
+
+    private static final int RANDOM_QUERIES = 20000;
+    private static final int WARMUP_QUERIES = 50000;
+    private static final int MEASURED_QUERIES = 200000;
+
+    private static ByteBuffer mapped;
+
+    @BeforeClass
+    public static void mapIndex() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(INDEX_FILE, "r")) {
+            mapped = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        }
+    }
+
+    @Test
+    public void knownCities_resolveToThemselves() throws IOException {
+        PlaceIndex index = new PlaceIndex(mapped);
+
+        assertEquals("Bengaluru, India", index.nearest(12.9716, 77.5946).getName());
+        assertEquals("Kolkata, India", index.nearest(22.57, 88.36).getName());
+        assertEquals("London, United Kingdom", index.nearest(51.50, -0.12).getName());
+        assertEquals(0.0, index.nearest(28.6139, 77.2090).getDistanceMeters(), 10.0);
+    }
+
+    @Test
+    public void nearest_matchesBruteForce() throws IOException {
+        PlaceIndex index = new PlaceIndex(mapped);
+        Random random = new Random(42);
+
+        for (int i = 0; i < RANDOM_QUERIES; i++) {
+            // Stay clear of the antimeridian, which the index does not wrap
+            double lat = random.nextDouble() * 160 - 80;
+            double lon = random.nextDouble() * 340 - 170;
+
+            PlaceIndex.Place place = index.nearest(lat, lon);
+            assertEquals("query " + lat + "," + lon,
+                    bruteForceDistance(lat, lon), distanceInIndexMetric(lat, lon, place), 1e-9);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void badMagic_isRejected() throws IOException {
+        new PlaceIndex(ByteBuffer.wrap(new byte[]{'N', 'O', 'P', 'E', 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 16}));
+    }
+
+    @Test
+    public void benchmark_lookupLatencyAndHeap() throws IOException {
+        PlaceIndex index = new PlaceIndex(mapped);
+
+        // Heap held per open index; the node and name data stay in the mapping
+        Runtime runtime = Runtime.getRuntime();
+        PlaceIndex[] held = new PlaceIndex[1000];
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        for (int i = 0; i < held.length; i++) {
+            held[i] = new PlaceIndex(mapped);
+        }
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        long heapPerIndex = Math.max(0, heapAfter - heapBefore) / held.length;
+
+        double[][] queries = new double[1024][];
+        Random random = new Random(7);
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{random.nextDouble() * 160 - 80, random.nextDouble() * 340 - 170};
+        }
+
+        int sink = 0;
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            double[] q = queries[i & (queries.length - 1)];
+            sink += index.nearest(q[0], q[1]).getName().length();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            double[] q = queries[i & (queries.length - 1)];
+            sink += index.nearest(q[0], q[1]).getName().length();
+        }
+        long nanosPerQuery = (System.nanoTime() - start) / MEASURED_QUERIES;
+
+        long scanStart = System.nanoTime();
+        for (int i = 0; i < 2000; i++) {
+            double[] q = queries[i & (queries.length - 1)];
+            sink += (int) bruteForceDistance(q[0], q[1]);
+        }
+        long scanNanosPerQuery = (System.nanoTime() - scanStart) / 2000;
+
+        System.out.println(String.format(Locale.US,
+                "places=%d mapped=%d B (upper bound on resident pages) heap=%d B/index; k-d lookup=%d ns, linear scan=%d ns (%d)",
+                index.size(), INDEX_FILE.length(), heapPerIndex,
+                nanosPerQuery, scanNanosPerQuery, sink & 1));
+        assertTrue(nanosPerQuery < 1000000);
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Smallest distance over every node, in the index's scaled-degree metric
+     */
+    private static double bruteForceDistance(double lat, double lon) {
+        int count = mapped.getInt(8);
+        double lonScale = Math.cos(Math.toRadians(lat));
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int node = 16 + i * 12;
+            double dLat = lat - mapped.getFloat(node);
+            double dLon = (lon - mapped.getFloat(node + 4)) * lonScale;
+            best = Math.min(best, dLat * dLat + dLon * dLon);
+        }
+        return best;
+    }
+
+    private static double distanceInIndexMetric(double lat, double lon, PlaceIndex.Place place) {
+        double dLat = lat - (float) place.getLatitude();
+        double dLon = (lon - (float) place.getLongitude()) * Math.cos(Math.toRadians(lat));
+        return dLat * dLat + dLon * dLon;
+    }
+}
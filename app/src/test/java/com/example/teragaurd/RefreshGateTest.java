@@ -0,0 +1,85 @@
+package com.example.teragaurd;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that RefreshGate skips fixes near a fresh snapshot and lets moves,
+ * expired data and incomplete snapshots through
+ */
+public class RefreshGateTest {
+
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+    private static final long NOW = 1700000000000L;
+
+    // Roughly one degree of latitude
+    private static final double METERS_PER_DEGREE = 111195.0;
+
+    @Test
+    public void noSnapshot_refreshes() {
+        RefreshGate gate = new RefreshGate();
+        assertTrue(gate.shouldRefresh(null, LAT, LON, NOW));
+        assertEquals(0, gate.getSkippedCount());
+    }
+
+    @Test
+    public void sameSpotWithinTtl_isSkippedAndCounted() {
+        RefreshGate gate = new RefreshGate();
+        WeatherSnapshot last = snapshot(NOW - TimeUnit.MINUTES.toMillis(2));
+
+        for (int i = 0; i < 5; i++) {
+            double jitter = 20 / METERS_PER_DEGREE;
+            assertFalse(gate.shouldRefresh(last, LAT + jitter, LON, NOW));
+        }
+        assertEquals(5, gate.getSkippedCount());
+        assertEquals(0, gate.getPassedCount());
+    }
+
+    @Test
+    public void movedPastThreshold_refreshes() {
+        RefreshGate gate = new RefreshGate();
+        WeatherSnapshot last = snapshot(NOW - TimeUnit.MINUTES.toMillis(2));
+
+        assertFalse(gate.shouldRefresh(last, LAT + 900 / METERS_PER_DEGREE, LON, NOW));
+        assertTrue(gate.shouldRefresh(last, LAT + 1100 / METERS_PER_DEGREE, LON, NOW));
+    }
+
+    @Test
+    public void expiredField_refreshes() {
+        RefreshGate gate = new RefreshGate();
+        long fresh = NOW - TimeUnit.MINUTES.toMillis(1);
+        long expired = NOW - RefreshGate.DEFAULT_TTL_MILLIS - 1;
+        WeatherSnapshot last = new WeatherSnapshot.Builder(LAT, LON)
+                .temperature(25.0, expired, WeatherSnapshot.Freshness.FRESH)
+                .aqi(2, fresh, WeatherSnapshot.Freshness.FRESH)
+                .forecast(ForecastSeries.EMPTY, fresh, WeatherSnapshot.Freshness.FRESH)
+                .build();
+
+        assertTrue(gate.shouldRefresh(last, LAT, LON, NOW));
+    }
+
+    @Test
+    public void missingField_refreshes() {
+        RefreshGate gate = new RefreshGate();
+        long fresh = NOW - TimeUnit.MINUTES.toMillis(1);
+        WeatherSnapshot last = new WeatherSnapshot.Builder(LAT, LON)
+                .temperature(25.0, fresh, WeatherSnapshot.Freshness.FRESH)
+                .forecast(ForecastSeries.EMPTY, fresh, WeatherSnapshot.Freshness.FRESH)
+                .build();
+
+        assertTrue(gate.shouldRefresh(last, LAT, LON, NOW));
+    }
+
+    private static WeatherSnapshot snapshot(long fetchedAt) {
+        return new WeatherSnapshot.Builder(LAT, LON)
+                .createdAt(fetchedAt)
+                .temperature(25.0, fetchedAt, WeatherSnapshot.Freshness.FRESH)
+                .aqi(2, fetchedAt, WeatherSnapshot.Freshness.FRESH)
+                .forecast(ForecastSeries.EMPTY, fetchedAt, WeatherSnapshot.Freshness.FRESH)
+                .build();
+    }
+}
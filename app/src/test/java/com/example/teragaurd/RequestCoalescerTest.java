@@ -0,0 +1,184 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fires concurrent identical calls through RequestCoalescer at a mock server
+ * that answers after a fixed delay, checking that they share one upstream
+ * request and that a canceled leader only fails its own caller
+ */
+public class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+    private static final long SERVER_LATENCY_MILLIS = 300;
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+
+    private MockWebServer server;
+    private ApiService apiService;
+    private RequestCoalescer coalescer;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setBody("{\"main\":{\"temp\":21.5}}")
+                        .setHeadersDelay(SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .create();
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/data/2.5/"))
+                .client(new OkHttpClient())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(ApiService.class);
+        coalescer = new RequestCoalescer(LocationCell.DEFAULT_PRECISION);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void concurrentCallers_shareOneUpstreamRequest() throws Exception {
+        RecordingCallback callback = new RecordingCallback(CALLERS);
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        for (int i = 0; i < CALLERS; i++) {
+            // Nearby fixes in the same cell
+            double jitter = i * 0.0001;
+            callers.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                coalescer.enqueue(apiService.getWeather(LAT + jitter, LON, "test-key", WeatherRepository.UNITS),
+                        callback);
+            });
+        }
+        go.countDown();
+
+        assertTrue(callback.done.await(5, TimeUnit.SECONDS));
+        callers.shutdown();
+
+        assertEquals(CALLERS, callback.temperatures.size());
+        for (double temperature : callback.temperatures) {
+            assertEquals(21.5, temperature, 0.0);
+        }
+        assertEquals(0, callback.failures.get());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, coalescer.getUpstreamCount());
+        assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    public void canceledLeader_onlyFailsItsOwnCaller() throws Exception {
+        RecordingCallback leaderCallback = new RecordingCallback(1);
+        RecordingCallback joinedCallback = new RecordingCallback(CALLERS - 1);
+
+        Call<WeatherResponse> leader = apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS);
+        coalescer.enqueue(leader, leaderCallback);
+        for (int i = 1; i < CALLERS; i++) {
+            coalescer.enqueue(apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS), joinedCallback);
+        }
+
+        // Cancel while the leader's request is waiting on the server
+        assertNotNull(server.takeRequest(5, TimeUnit.SECONDS));
+        leader.cancel();
+
+        assertTrue(leaderCallback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, leaderCallback.failures.get());
+        assertTrue(leaderCallback.temperatures.isEmpty());
+
+        assertTrue(joinedCallback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, joinedCallback.failures.get());
+        assertEquals(CALLERS - 1, joinedCallback.temperatures.size());
+
+        // The canceled request plus the one handed over to the next caller
+        assertEquals(2, server.getRequestCount());
+        assertEquals(2, coalescer.getUpstreamCount());
+    }
+
+    @Test
+    public void canceledJoiner_getsFailureWhileOthersGetResponse() throws Exception {
+        RecordingCallback leaderCallback = new RecordingCallback(1);
+        RecordingCallback joinerCallback = new RecordingCallback(1);
+
+        coalescer.enqueue(apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS), leaderCallback);
+        Call<WeatherResponse> joiner = apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS);
+        coalescer.enqueue(joiner, joinerCallback);
+        joiner.cancel();
+
+        assertTrue(leaderCallback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, leaderCallback.temperatures.size());
+
+        assertTrue(joinerCallback.done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, joinerCallback.failures.get());
+        assertTrue(joinerCallback.temperatures.isEmpty());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    /**
+     * Collects results from any thread and counts down once per callback
+     */
+    private static class RecordingCallback implements Callback<WeatherResponse> {
+        final CountDownLatch done;
+        final List<Double> temperatures = new ArrayList<>();
+        final AtomicInteger failures = new AtomicInteger();
+
+        RecordingCallback(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
+            synchronized (temperatures) {
+                temperatures.add(WeatherRepository.temperatureOf(response));
+            }
+            done.countDown();
+        }
+
+        @Override
+        public void onFailure(Call<WeatherResponse> call, Throwable t) {
+            failures.incrementAndGet();
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.teragaurd;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs ResilienceInterceptor against a fault-injecting mock server: retries
+ * on transient errors, the circuit opening and failing fast, stale cache
+ * data while open, and the half-open probe being settled on every exit.
+ * Backoff and open periods are shortened so the suite runs quickly
+ */
+public class ResilienceInterceptorTest {
+
+    private static final long OPEN_MILLIS = 50;
+    private static final String WEATHER_JSON = "{\"main\":{\"temp\":21.5}}";
+
+    private MockWebServer server;
+    private ResilienceInterceptor resilience;
+    private OkHttpClient client;
+
+    // Runs below the interceptor, in place of the network, when set
+    private volatile Interceptor fault;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        resilience = new ResilienceInterceptor(1, 4, OPEN_MILLIS, OPEN_MILLIS * 2);
+        client = new OkHttpClient.Builder()
+                .addInterceptor(resilience)
+                .addInterceptor(chain -> {
+                    Interceptor injected = fault;
+                    return injected != null ? injected.intercept(chain) : chain.proceed(chain.request());
+                })
+                .build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void transientErrors_areRetried() throws IOException {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+
+        try (Response response = execute(client)) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+        assertEquals("weather=CLOSED", resilience.getStats());
+    }
+
+    @Test
+    public void repeatedFailures_openCircuitAndFailFast() throws IOException {
+        tripBreaker();
+        int requests = server.getRequestCount();
+
+        try {
+            execute(client);
+            fail("Open circuit let a call through");
+        } catch (ResilienceInterceptor.CircuitOpenException expected) {
+            // Fails fast without touching the network
+        }
+        assertEquals(requests, server.getRequestCount());
+    }
+
+    @Test
+    public void openCircuit_servesStaleCacheData() throws IOException {
+        File directory = Files.createTempDirectory("weather-http").toFile();
+        long[] now = {1700000000000L};
+        WeatherResponseCache cache = new WeatherResponseCache(directory, 1024 * 1024,
+                LocationCell.DEFAULT_PRECISION, () -> now[0])
+                .setTtl("weather", TimeUnit.MINUTES.toMillis(10));
+        // Same order as NetworkModule: the cache sees the breaker's failure
+        OkHttpClient cachedClient = new OkHttpClient.Builder()
+                .addInterceptor(cache)
+                .addInterceptor(resilience)
+                .build();
+        try {
+            server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+            execute(cachedClient).close();
+
+            now[0] += TimeUnit.HOURS.toMillis(1);
+            tripBreaker();
+            try (Response response = execute(cachedClient)) {
+                assertEquals(WeatherResponseCache.STATUS_STALE,
+                        response.header(WeatherResponseCache.HEADER_CACHE_STATUS));
+                assertEquals(WEATHER_JSON, response.body().string());
+            }
+        } finally {
+            cache.clear();
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void successfulProbe_closesCircuit() throws Exception {
+        tripBreaker();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        execute(client).close();
+
+        assertEquals("weather=CLOSED", resilience.getStats());
+    }
+
+    @Test
+    public void canceledProbe_letsNextCallProbe() throws Exception {
+        tripBreaker();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        fault = chain -> {
+            chain.call().cancel();
+            return serviceUnavailable(chain.request());
+        };
+        try {
+            execute(client);
+            fail("Canceled probe returned a response");
+        } catch (IOException expected) {
+            assertFalse(expected instanceof ResilienceInterceptor.CircuitOpenException);
+        }
+        assertEquals("weather=OPEN", resilience.getStats());
+
+        assertNextCallProbes();
+    }
+
+    @Test
+    public void interruptedProbe_letsNextCallProbe() throws Exception {
+        tripBreaker();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        fault = chain -> {
+            Thread.currentThread().interrupt();
+            return serviceUnavailable(chain.request());
+        };
+        try {
+            execute(client);
+            fail("Interrupted probe returned a response");
+        } catch (InterruptedIOException expected) {
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals("weather=OPEN", resilience.getStats());
+
+        assertNextCallProbes();
+    }
+
+    @Test
+    public void crashedProbe_letsNextCallProbe() throws Exception {
+        tripBreaker();
+        Thread.sleep(OPEN_MILLIS * 2);
+
+        fault = chain -> {
+            throw new IllegalStateException("Injected crash");
+        };
+        try {
+            execute(client);
+            fail("Crashed probe returned a response");
+        } catch (IllegalStateException expected) {
+            // Propagates unchanged
+        }
+        assertEquals("weather=OPEN", resilience.getStats());
+
+        assertNextCallProbes();
+    }
+
+    @Test
+    public void resetAll_retriesImmediately() throws IOException {
+        tripBreaker();
+
+        resilience.resetAll();
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        execute(client).close();
+
+        assertEquals("weather=CLOSED", resilience.getStats());
+    }
+
+    // ==================== HELPERS ====================
+
+    private Response execute(OkHttpClient httpClient) throws IOException {
+        Request request = new Request.Builder()
+                .url(server.url("/data/2.5/weather?lat=12.97&lon=77.59&appid=test-key"))
+                .build();
+        return httpClient.newCall(request).execute();
+    }
+
+    /**
+     * Fail three calls of three attempts each, which opens the circuit
+     */
+    private void tripBreaker() throws IOException {
+        for (int call = 0; call < 3; call++) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                server.enqueue(new MockResponse().setResponseCode(503));
+            }
+            try (Response response = execute(client)) {
+                assertEquals(503, response.code());
+            }
+        }
+        assertEquals("weather=OPEN", resilience.getStats());
+    }
+
+    private void assertNextCallProbes() throws IOException {
+        fault = null;
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        try (Response response = execute(client)) {
+            assertEquals(200, response.code());
+        }
+        assertEquals("weather=CLOSED", resilience.getStats());
+    }
+
+    private static Response serviceUnavailable(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(503)
+                .message("Service Unavailable")
+                .body(ResponseBody.create(null, ""))
+                .build();
+    }
+}
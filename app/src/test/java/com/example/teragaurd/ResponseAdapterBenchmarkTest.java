@@ -0,0 +1,243 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Microbenchmark for the hand-written response adapters, run on the host JVM
+ * Prints first-parse (fresh Gson, cold adapter lookup) and steady-state decode
+ * times next to Gson's reflective decoding of the same payloads, and checks
+ * both paths agree. The forecast comparison runs a full 5-day payload
+ * (test resource forecast_5day.json) through reflective Gson and through
+ * ForecastResponseAdapter and reports median time and allocated bytes per decode.
+ * Numbers are indicative only; see NetworkMetrics for on-device timings
+ */
+public class ResponseAdapterBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 10000;
+    private static final int ROUNDS = 5;
+
+    private static final String WEATHER_JSON = "{\"coord\":{\"lon\":77.59,\"lat\":12.97},"
+            + "\"weather\":[{\"id\":802,\"main\":\"Clouds\",\"description\":\"scattered clouds\",\"icon\":\"03d\"}],"
+            + "\"base\":\"stations\",\"main\":{\"temp\":27.4,\"feels_like\":28.1,\"temp_min\":26.2,"
+            + "\"temp_max\":28.3,\"pressure\":1012,\"humidity\":61},\"visibility\":10000,"
+            + "\"wind\":{\"speed\":4.1,\"deg\":270},\"clouds\":{\"all\":40},\"dt\":1700000000,"
+            + "\"sys\":{\"country\":\"IN\",\"sunrise\":1699990000,\"sunset\":1700032000},"
+            + "\"timezone\":19800,\"id\":1277333,\"name\":\"Bengaluru\",\"cod\":200}";
+
+    private static final String AQI_JSON = "{\"coord\":{\"lon\":77.59,\"lat\":12.97},"
+            + "\"list\":[{\"main\":{\"aqi\":3},\"components\":{\"co\":407.22,\"no\":0.2,"
+            + "\"no2\":11.31,\"o3\":58.65,\"so2\":6.56,\"pm2_5\":32.1,\"pm10\":41.7,\"nh3\":3.1},"
+            + "\"dt\":1700000000}]}";
+
+    private static final String FORECAST_JSON = forecastJson(40);
+
+    @Test
+    public void adapters_matchReflectiveDecoding() {
+        Gson reflective = new Gson();
+        Gson generated = newAdapterGson();
+
+        WeatherResponse weatherA = reflective.fromJson(WEATHER_JSON, WeatherResponse.class);
+        WeatherResponse weatherB = generated.fromJson(WEATHER_JSON, WeatherResponse.class);
+        assertEquals(weatherA.getMain().getTemp(), weatherB.getMain().getTemp(), 0.0);
+
+        AqiResponse aqiA = reflective.fromJson(AQI_JSON, AqiResponse.class);
+        AqiResponse aqiB = generated.fromJson(AQI_JSON, AqiResponse.class);
+        assertEquals(aqiA.getList().get(0).getMain().getAqi(), aqiB.getList().get(0).getMain().getAqi());
+
+        ForecastResponse forecast = generated.fromJson(FORECAST_JSON, ForecastResponse.class);
+        assertEquals(40, forecast.getSeries().size());
+        assertEquals(20.0f, forecast.getSeries().getTemp(0), 0.001f);
+    }
+
+    @Test
+    public void benchmark_firstParseAndSteadyState() {
+        report("weather/reflective", firstParse(new Gson(), WEATHER_JSON, WeatherResponse.class),
+                steadyState(new Gson(), WEATHER_JSON, WeatherResponse.class));
+        report("weather/adapter", firstParse(newAdapterGson(), WEATHER_JSON, WeatherResponse.class),
+                steadyState(newAdapterGson(), WEATHER_JSON, WeatherResponse.class));
+        report("aqi/reflective", firstParse(new Gson(), AQI_JSON, AqiResponse.class),
+                steadyState(new Gson(), AQI_JSON, AqiResponse.class));
+        report("aqi/adapter", firstParse(newAdapterGson(), AQI_JSON, AqiResponse.class),
+                steadyState(newAdapterGson(), AQI_JSON, AqiResponse.class));
+        report("forecast/adapter", firstParse(newAdapterGson(), FORECAST_JSON, ForecastResponse.class),
+                steadyState(newAdapterGson(), FORECAST_JSON, ForecastResponse.class));
+    }
+
+    @Test
+    public void benchmark_forecastReflectiveVsAdapter() throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        String json = readResource("forecast_5day.json");
+        Gson reflective = new Gson();
+        Gson generated = newAdapterGson();
+
+        // Both paths must decode the same points before their costs are compared
+        WeatherForecastResponse model = reflective.fromJson(json, WeatherForecastResponse.class);
+        ForecastSeries series = generated.fromJson(json, ForecastResponse.class).getSeries();
+        assertEquals(model.list.size(), series.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(model.list.get(i).dt, series.getDt(i));
+            assertEquals(model.list.get(i).main.temp, series.getTemp(i), 0.001);
+            assertEquals(model.list.get(i).main.humidity, series.getHumidity(i));
+        }
+
+        Cost reflectiveCost = measure(threads, reflective, json, WeatherForecastResponse.class);
+        Cost adapterCost = measure(threads, generated, json, ForecastResponse.class);
+        System.out.println(String.format(Locale.US, "forecast payload     %d bytes, %d points, median of %d x %d decodes",
+                json.length(), series.size(), ROUNDS, MEASURED_ITERATIONS));
+        reportCost("forecast/reflective", reflectiveCost);
+        reportCost("forecast/adapter", adapterCost);
+    }
+
+    // ==================== HELPERS ====================
+
+    private static Gson newAdapterGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .registerTypeAdapter(AqiResponse.class, new AqiResponseAdapter())
+                .registerTypeAdapter(ForecastResponse.class, new ForecastResponseAdapter())
+                .create();
+    }
+
+    /**
+     * Time of the very first decode on a fresh Gson, in microseconds
+     */
+    private static long firstParse(Gson gson, String json, Class<?> type) {
+        long start = System.nanoTime();
+        assertNotNull(gson.fromJson(json, type));
+        return (System.nanoTime() - start) / 1000;
+    }
+
+    /**
+     * Mean decode time after warmup, in nanoseconds
+     */
+    private static long steadyState(Gson gson, String json, Class<?> type) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            gson.fromJson(json, type);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            gson.fromJson(json, type);
+        }
+        return (System.nanoTime() - start) / MEASURED_ITERATIONS;
+    }
+
+    private static void report(String name, long firstMicros, long steadyNanos) {
+        System.out.println(String.format(Locale.US, "%-20s first=%6d us  steady=%7d ns",
+                name, firstMicros, steadyNanos));
+    }
+
+    /**
+     * Median time and allocation per decode over ROUNDS rounds, after warmup
+     */
+    private static Cost measure(com.sun.management.ThreadMXBean threads, Gson gson, String json, Class<?> type) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            gson.fromJson(json, type);
+        }
+        long[] nanos = new long[ROUNDS];
+        long[] bytes = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                gson.fromJson(json, type);
+            }
+            nanos[round] = (System.nanoTime() - start) / MEASURED_ITERATIONS;
+            bytes[round] = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_ITERATIONS;
+        }
+        return new Cost(median(nanos), median(bytes));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void reportCost(String name, Cost cost) {
+        System.out.println(String.format(Locale.US, "%-20s %7d ns/decode  %7d B/decode",
+                name, cost.nanos, cost.bytes));
+    }
+
+    private static String readResource(String name) throws IOException {
+        InputStream in = ResponseAdapterBenchmarkTest.class.getClassLoader().getResourceAsStream(name);
+        assertNotNull("Missing test resource " + name, in);
+        StringBuilder out = new StringBuilder();
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                out.append(buffer, 0, read);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String forecastJson(int points) {
+        StringBuilder json = new StringBuilder("{\"cod\":\"200\",\"message\":0,\"cnt\":")
+                .append(points).append(",\"list\":[");
+        for (int i = 0; i < points; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"dt\":").append(1700000000L + i * 10800L)
+                    .append(",\"main\":{\"temp\":").append(20 + i % 8)
+                    .append(",\"feels_like\":21.5,\"temp_min\":19.0,\"temp_max\":24.0,")
+                    .append("\"pressure\":1012,\"humidity\":").append(50 + i % 30).append('}')
+                    .append(",\"weather\":[{\"id\":800,\"main\":\"Clear\",\"description\":\"clear sky\"}]")
+                    .append(",\"clouds\":{\"all\":0},\"wind\":{\"speed\":3.2,\"deg\":180},")
+                    .append("\"dt_txt\":\"2023-11-14 22:13:20\"}");
+        }
+        return json.append("],\"city\":{\"name\":\"Bengaluru\"}}").toString();
+    }
+
+    private static class Cost {
+        final long nanos;
+        final long bytes;
+
+        Cost(long nanos, long bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Plain reflective model of the forecast response, the shape ForecastResponse
+     * had before ForecastResponseAdapter: one object per point and per main block
+     */
+    static class WeatherForecastResponse {
+        List<HourlyData> list;
+
+        static class HourlyData {
+            long dt;
+            Main main;
+        }
+
+        static class Main {
+            double temp;
+            double feels_like;
+            double temp_min;
+            double temp_max;
+            int humidity;
+        }
+    }
+}
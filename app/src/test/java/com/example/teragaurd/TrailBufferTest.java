@@ -0,0 +1,132 @@
+package com.example.teragaurd;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ring buffer behaviour of the SOS trail file: wrap-around, reopening after a
+ * restart, torn records, the time-window export and copies taken for export
+ */
+public class TrailBufferTest {
+
+    private static final long T0 = 1700000000000L;
+    private static final long FIX_INTERVAL_MILLIS = 5000;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("sos_trail", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void wrapsAround_keepingNewestRecords() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            for (int i = 0; i < 20; i++) {
+                trail.append(T0 + i * FIX_INTERVAL_MILLIS, 12.0 + i, 77.0, 5f);
+            }
+            assertEquals(8, trail.size());
+
+            String csv = export(trail, 0);
+            assertEquals(9, csv.split("\n").length);
+            assertTrue(csv.contains(",24.000000,"));
+            assertTrue(csv.contains(",31.000000,"));
+            assertFalse(csv.contains(",23.000000,"));
+        }
+    }
+
+    @Test
+    public void reopen_resumesAfterRestart() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            trail.append(T0, 12.0, 77.0, 5f);
+            trail.append(T0 + FIX_INTERVAL_MILLIS, 12.1, 77.0, 5f);
+        }
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            assertEquals(2, trail.size());
+            trail.append(T0 + 2 * FIX_INTERVAL_MILLIS, 12.2, 77.0, 5f);
+            assertEquals(3, trail.size());
+        }
+    }
+
+    @Test
+    public void capacityChange_resetsTrail() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            trail.append(T0, 12.0, 77.0, 5f);
+        }
+        try (TrailBuffer trail = new TrailBuffer(file, 16)) {
+            assertEquals(0, trail.size());
+        }
+    }
+
+    @Test
+    public void tornRecord_isSkipped() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            trail.append(T0, 12.0, 77.0, 5f);
+            trail.append(T0 + FIX_INTERVAL_MILLIS, 12.1, 77.0, 5f);
+        }
+        // Zero the second record's sequence number, as if the process died mid-write
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(32 + TrailBuffer.RECORD_BYTES + 28);
+            raw.writeInt(0);
+        }
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            String csv = export(trail, 0);
+            assertTrue(csv.contains(",12.000000,"));
+            assertFalse(csv.contains(",12.100000,"));
+        }
+    }
+
+    @Test
+    public void writeSince_filtersByTime() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 64)) {
+            for (int i = 0; i < 60; i++) {
+                trail.append(T0 + i * FIX_INTERVAL_MILLIS, 12.0, 77.0 + i * 0.001, 4.5f);
+            }
+            StringWriter out = new StringWriter();
+            assertEquals(12, trail.writeSince(T0 + 48 * FIX_INTERVAL_MILLIS, out));
+            assertTrue(out.toString().startsWith("time,latitude,longitude,accuracy_m\n"));
+            assertTrue(out.toString().contains("4.5\n"));
+        }
+    }
+
+    @Test
+    public void copySince_isDetachedFromLaterAppends() throws IOException {
+        try (TrailBuffer trail = new TrailBuffer(file, 8)) {
+            for (int i = 0; i < 8; i++) {
+                trail.append(T0 + i * FIX_INTERVAL_MILLIS, 12.0 + i, 77.0, 5f);
+            }
+            TrailBuffer.Slice slice = trail.copySince(T0 + 4 * FIX_INTERVAL_MILLIS);
+            // Overwrites every slot the slice was copied from
+            for (int i = 8; i < 16; i++) {
+                trail.append(T0 + i * FIX_INTERVAL_MILLIS, 12.0 + i, 77.0, 5f);
+            }
+
+            assertEquals(4, slice.size());
+            StringWriter out = new StringWriter();
+            assertEquals(4, slice.writeCsv(out));
+            assertTrue(out.toString().contains(",16.000000,"));
+            assertTrue(out.toString().contains(",19.000000,"));
+            assertFalse(out.toString().contains(",20.000000,"));
+        }
+    }
+
+    private static String export(TrailBuffer trail, long since) throws IOException {
+        StringWriter out = new StringWriter();
+        trail.writeSince(since, out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batch refresh of the watchlist against a local mock server with a fixed
+ * per-request latency, checking the latency budget and the parallelism bound
+ */
+public class WatchlistFetcherTest {
+
+    private static final int LOCATIONS = 20;
+    private static final int PARALLELISM = 4;
+    private static final long SERVER_LATENCY_MILLIS = 100;
+    private static final long BUDGET_MILLIS = 3000;
+
+    private MockWebServer server;
+    private ExecutorService executor;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                int now = active.incrementAndGet();
+                maxActive.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(SERVER_LATENCY_MILLIS);
+                } finally {
+                    active.decrementAndGet();
+                }
+                if (request.getPath().contains("/air_pollution")) {
+                    return new MockResponse().setBody("{\"list\":[{\"main\":{\"aqi\":2}}]}");
+                }
+                return new MockResponse().setBody("{\"main\":{\"temp\":21.5}}");
+            }
+        });
+        server.start();
+        executor = Executors.newFixedThreadPool(PARALLELISM);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void refreshOfTwentyLocations_finishesWithinBudget() throws Exception {
+        WatchlistFetcher.Result result = newFetcher().fetchAll(locations(LOCATIONS), BUDGET_MILLIS);
+
+        assertEquals(LOCATIONS, result.getSnapshots().size());
+        assertEquals(0, result.getFailed());
+        assertEquals(0, result.getTimedOut());
+        assertTrue("took " + result.getElapsedMillis() + "ms", result.getElapsedMillis() < BUDGET_MILLIS);
+        assertTrue("max in flight " + maxActive.get(), maxActive.get() <= PARALLELISM);
+
+        WeatherSnapshot first = result.getSnapshots().get(0);
+        assertEquals(21.5, first.getTemperature(), 0.0);
+        assertEquals(2, first.getAqi());
+    }
+
+    @Test
+    public void exhaustedBudget_cancelsRemainingLocations() throws Exception {
+        long budget = SERVER_LATENCY_MILLIS * 3;
+        WatchlistFetcher.Result result = newFetcher().fetchAll(locations(LOCATIONS), budget);
+
+        assertTrue(result.getTimedOut() > 0);
+        assertEquals(LOCATIONS, result.getSnapshots().size() + result.getFailed() + result.getTimedOut());
+        assertTrue("took " + result.getElapsedMillis() + "ms",
+                result.getElapsedMillis() < budget + SERVER_LATENCY_MILLIS * 2);
+    }
+
+    // ==================== HELPERS ====================
+
+    private WatchlistFetcher newFetcher() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .registerTypeAdapter(AqiResponse.class, new AqiResponseAdapter())
+                .create();
+        ApiService apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/data/2.5/"))
+                .client(new OkHttpClient())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(ApiService.class);
+        return new WatchlistFetcher(apiService, executor, "test-key");
+    }
+
+    private static List<SavedLocation> locations(int count) {
+        List<SavedLocation> locations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            locations.add(new SavedLocation("Site " + i, 12.9 + i * 0.1, 77.5 + i * 0.1));
+        }
+        return locations;
+    }
+}
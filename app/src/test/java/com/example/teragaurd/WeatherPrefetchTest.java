@@ -0,0 +1,177 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the background prefetch (WeatherRepository.fetchBlocking() and
+ * WeatherPrefetchWorker.shouldRetry()) through the response cache with a fake
+ * wall clock and a mock server that can drop every connection, checking that
+ * a run which only reached expired cache entries is retried instead of
+ * reported as a fresh prefetch
+ */
+public class WeatherPrefetchTest {
+
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+    private static final long T0 = 1700000000000L;
+
+    private static final String WEATHER_JSON = "{\"main\":{\"temp\":21.5}}";
+    private static final String AQI_JSON = "{\"list\":[{\"main\":{\"aqi\":2}}]}";
+    private static final String FORECAST_JSON = "{\"list\":["
+            + "{\"dt\":1700000000,\"main\":{\"temp\":20.0}},"
+            + "{\"dt\":1700010800,\"main\":{\"temp\":22.0}}]}";
+
+    private MockWebServer server;
+    private File directory;
+    private WeatherResponseCache cache;
+    private ApiService apiService;
+    private long now = T0;
+    private volatile boolean online = true;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (!online) {
+                    return new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+                }
+                String path = request.getPath();
+                if (path.contains("/air_pollution")) {
+                    return new MockResponse().setBody(AQI_JSON);
+                }
+                if (path.contains("/forecast")) {
+                    return new MockResponse().setBody(FORECAST_JSON);
+                }
+                return new MockResponse().setBody(WEATHER_JSON);
+            }
+        });
+        server.start();
+
+        // Same TTLs as NetworkModule
+        directory = Files.createTempDirectory("weather-http").toFile();
+        cache = new WeatherResponseCache(directory, 1024 * 1024, LocationCell.DEFAULT_PRECISION, () -> now)
+                .setTtl("weather", TimeUnit.MINUTES.toMillis(10))
+                .setTtl("air_pollution", TimeUnit.MINUTES.toMillis(30))
+                .setTtl("forecast", TimeUnit.HOURS.toMillis(1));
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .registerTypeAdapter(AqiResponse.class, new AqiResponseAdapter())
+                .registerTypeAdapter(ForecastResponse.class, new ForecastResponseAdapter())
+                .create();
+        apiService = new Retrofit.Builder()
+                .baseUrl(server.url("/data/2.5/"))
+                .client(new OkHttpClient.Builder().addInterceptor(cache).build())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(ApiService.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        cache.clear();
+        directory.delete();
+    }
+
+    @Test
+    public void online_prefetchIsFresh() throws IOException {
+        WeatherSnapshot snapshot = prefetch();
+
+        assertEquals(WeatherSnapshot.Freshness.FRESH, snapshot.getTemperatureFreshness());
+        assertEquals(WeatherSnapshot.Freshness.FRESH, snapshot.getAqiFreshness());
+        assertEquals(WeatherSnapshot.Freshness.FRESH, snapshot.getForecastFreshness());
+        assertEquals(T0, snapshot.getTemperatureTime());
+        assertEquals(2, snapshot.getForecast().size());
+        assertTrue(snapshot.isComplete());
+        assertFalse(WeatherPrefetchWorker.shouldRetry(snapshot));
+    }
+
+    @Test
+    public void offlineWithinTtl_servesCachedAndSucceeds() throws IOException {
+        prefetch();
+        int requests = server.getRequestCount();
+
+        now = T0 + TimeUnit.MINUTES.toMillis(5);
+        online = false;
+        WeatherSnapshot snapshot = prefetch();
+
+        assertEquals(requests, server.getRequestCount());
+        assertEquals(WeatherSnapshot.Freshness.CACHED, snapshot.getTemperatureFreshness());
+        assertEquals(T0, snapshot.getTemperatureTime());
+        assertTrue(snapshot.isComplete());
+        assertFalse(WeatherPrefetchWorker.shouldRetry(snapshot));
+    }
+
+    @Test
+    public void offlineAfterTtl_servesStaleAndRetries() throws IOException {
+        prefetch();
+
+        now = T0 + TimeUnit.HOURS.toMillis(3);
+        online = false;
+        WeatherSnapshot snapshot = prefetch();
+
+        assertEquals(WeatherSnapshot.Freshness.STALE, snapshot.getTemperatureFreshness());
+        assertEquals(WeatherSnapshot.Freshness.STALE, snapshot.getAqiFreshness());
+        assertEquals(WeatherSnapshot.Freshness.STALE, snapshot.getForecastFreshness());
+        assertEquals(T0, snapshot.getTemperatureTime());
+        assertEquals(T0, snapshot.getForecastTime());
+        assertFalse(snapshot.hasCurrentData());
+        assertTrue(WeatherPrefetchWorker.shouldRetry(snapshot));
+        assertEquals(3, cache.getStaleCount());
+    }
+
+    @Test
+    public void offlineWithEmptyCache_throws() {
+        online = false;
+        try {
+            prefetch();
+            fail("Prefetch without network or cache did not fail");
+        } catch (IOException expected) {
+            // The worker retries on IOException
+        }
+    }
+
+    @Test
+    public void connectivityRestored_prefetchIsFreshAgain() throws IOException {
+        prefetch();
+        now = T0 + TimeUnit.HOURS.toMillis(3);
+        online = false;
+        assertTrue(WeatherPrefetchWorker.shouldRetry(prefetch()));
+
+        now += TimeUnit.MINUTES.toMillis(15);
+        online = true;
+        WeatherSnapshot snapshot = prefetch();
+
+        assertEquals(WeatherSnapshot.Freshness.FRESH, snapshot.getTemperatureFreshness());
+        assertEquals(now, snapshot.getTemperatureTime());
+        assertFalse(WeatherPrefetchWorker.shouldRetry(snapshot));
+    }
+
+    private WeatherSnapshot prefetch() throws IOException {
+        return WeatherRepository.fetchBlocking(apiService, "test-key", LAT, LON);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.teragaurd;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that responses served by WeatherResponseCache carry the time they
+ * were fetched and map to the right snapshot freshness, so cached and stale
+ * bodies are not mistaken for new readings. Uses a fake wall clock
+ */
+public class WeatherResponseCacheTest {
+
+    private static final double LAT = 12.9716;
+    private static final double LON = 77.5946;
+    private static final long T0 = 1700000000000L;
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final String WEATHER_JSON = "{\"main\":{\"temp\":21.5}}";
+
+    private MockWebServer server;
+    private File directory;
+    private WeatherResponseCache cache;
+    private long now = T0;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        directory = Files.createTempDirectory("weather-http").toFile();
+        cache = new WeatherResponseCache(directory, 1024 * 1024, LocationCell.DEFAULT_PRECISION, () -> now)
+                .setTtl("weather", TTL_MILLIS);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        cache.clear();
+        directory.delete();
+    }
+
+    @Test
+    public void upstreamResponse_isFreshAtFetchTime() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+
+        Response<WeatherResponse> response = fetchWeather();
+
+        assertEquals(WeatherSnapshot.Freshness.FRESH, WeatherRepository.freshnessOf(response));
+        assertEquals(T0, WeatherRepository.fetchedAtOf(response));
+    }
+
+    @Test
+    public void hitWithinTtl_keepsStoredTime() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        fetchWeather();
+
+        now = T0 + TimeUnit.MINUTES.toMillis(5);
+        Response<WeatherResponse> response = fetchWeather();
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(WeatherSnapshot.Freshness.CACHED, WeatherRepository.freshnessOf(response));
+        assertEquals(T0, WeatherRepository.fetchedAtOf(response));
+    }
+
+    @Test
+    public void staleAfterServerError_isStaleWithStoredTime() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        fetchWeather();
+
+        now = T0 + TimeUnit.HOURS.toMillis(20);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        Response<WeatherResponse> response = fetchWeather();
+
+        assertEquals(21.5, WeatherRepository.temperatureOf(response), 0.0);
+        assertEquals(WeatherSnapshot.Freshness.STALE, WeatherRepository.freshnessOf(response));
+        assertEquals(T0, WeatherRepository.fetchedAtOf(response));
+        assertEquals(1, cache.getStaleCount());
+    }
+
+    @Test
+    public void staleAfterNetworkError_triggersNextRefresh() throws IOException {
+        server.enqueue(new MockResponse().setBody(WEATHER_JSON));
+        ApiService apiService = newApiService();
+        Response<WeatherResponse> first = apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS).execute();
+        assertTrue(first.isSuccessful());
+
+        now = T0 + TimeUnit.HOURS.toMillis(20);
+        server.shutdown();
+        Response<WeatherResponse> response =
+                apiService.getWeather(LAT, LON, "test-key", WeatherRepository.UNITS).execute();
+        assertTrue(WeatherResponseCache.isStale(response.raw()));
+
+        // A day-old reading must not hold off the next refresh
+        WeatherSnapshot snapshot = new WeatherSnapshot.Builder(LAT, LON)
+                .temperature(WeatherRepository.temperatureOf(response),
+                        WeatherRepository.fetchedAtOf(response), WeatherRepository.freshnessOf(response))
+                .aqi(2, now, WeatherSnapshot.Freshness.FRESH)
+                .forecast(ForecastSeries.EMPTY, now, WeatherSnapshot.Freshness.FRESH)
+                .build();
+        assertFalse(snapshot.isComplete());
+        assertTrue(new RefreshGate().shouldRefresh(snapshot, LAT, LON, now));
+    }
+
+    // ==================== HELPERS ====================
+
+    private Response<WeatherResponse> fetchWeather() throws IOException {
+        return newApiService().getWeather(LAT, LON, "test-key", WeatherRepository.UNITS).execute();
+    }
+
+    private ApiService newApiService() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(WeatherResponse.class, new WeatherResponseAdapter())
+                .create();
+        return new Retrofit.Builder()
+                .baseUrl(server.url("/data/2.5/"))
+                .client(new OkHttpClient.Builder().addInterceptor(cache).build())
+                .addConverterFactory(GsonConverterFactory.create(gson))
+                .build()
+                .create(ApiService.class);
+    }
+}
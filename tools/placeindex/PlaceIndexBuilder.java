@@ -0,0 +1,133 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Build-time tool that writes the offline place index read by PlaceIndex
+ *
+ * Usage (from the repository root):
+ *   java tools/placeindex/PlaceIndexBuilder.java tools/placeindex/places.csv app/src/main/assets/places.idx
+ *
+ * Input is CSV with "name,country,latitude,longitude" per line; blank lines
+ * and lines starting with '#' are skipped. Any larger extract in the same
+ * shape (e.g. GeoNames cities15000 cut down to those columns) can be used.
+ *
+ * Output layout, big-endian:
+ *   magic "TGPI", int version, int count, int namesOffset
+ *   count nodes of 12 bytes: float latitude, float longitude, int nameOffset
+ *   names: unsigned short length + UTF-8 "Name, Country", at namesOffset + nameOffset
+ * Nodes form an implicit k-d tree: the root of the range [lo, hi) is at
+ * (lo + hi) >>> 1, with latitude splits at even depths and longitude at odd.
+ * Keep this layout in sync with PlaceIndex in the app
+ */
+public class PlaceIndexBuilder {
+
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int NODE_BYTES = 12;
+
+    static final class Place {
+        final String label;
+        final float lat;
+        final float lon;
+
+        Place(String label, float lat, float lon) {
+            this.label = label;
+            this.lat = lat;
+            this.lon = lon;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: PlaceIndexBuilder <places.csv> <places.idx>");
+            System.exit(2);
+        }
+
+        List<Place> places = readCsv(args[0]);
+        Place[] nodes = places.toArray(new Place[0]);
+        layout(nodes, 0, nodes.length, 0);
+
+        byte[] index = write(nodes);
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            out.write(index);
+        }
+        System.out.println("Wrote " + nodes.length + " places, " + index.length + " bytes to " + args[1]);
+    }
+
+    static List<Place> readCsv(String path) throws IOException {
+        List<Place> places = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                String[] fields = line.split(",");
+                if (fields.length != 4) {
+                    throw new IOException(path + ":" + lineNumber + ": expected 4 fields, got " + fields.length);
+                }
+                float lat = Float.parseFloat(fields[2].trim());
+                float lon = Float.parseFloat(fields[3].trim());
+                if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+                    throw new IOException(path + ":" + lineNumber + ": coordinate out of range");
+                }
+                places.add(new Place(fields[0].trim() + ", " + fields[1].trim(), lat, lon));
+            }
+        }
+        return places;
+    }
+
+    /**
+     * Reorder [lo, hi) in place so each range's median on the split axis sits at its midpoint
+     */
+    static void layout(Place[] nodes, int lo, int hi, int depth) {
+        if (hi - lo <= 1) return;
+        Comparator<Place> byAxis = depth % 2 == 0
+                ? Comparator.comparingDouble(p -> p.lat)
+                : Comparator.comparingDouble(p -> p.lon);
+        Arrays.sort(nodes, lo, hi, byAxis);
+        int mid = (lo + hi) >>> 1;
+        layout(nodes, lo, mid, depth + 1);
+        layout(nodes, mid + 1, hi, depth + 1);
+    }
+
+    static byte[] write(Place[] nodes) throws IOException {
+        ByteArrayOutputStream names = new ByteArrayOutputStream();
+        int[] nameOffsets = new int[nodes.length];
+        DataOutputStream nameOut = new DataOutputStream(names);
+        for (int i = 0; i < nodes.length; i++) {
+            nameOffsets[i] = nameOut.size();
+            byte[] label = nodes[i].label.getBytes(StandardCharsets.UTF_8);
+            nameOut.writeShort(label.length);
+            nameOut.write(label);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeBytes("TGPI");
+        out.writeInt(VERSION);
+        out.writeInt(nodes.length);
+        out.writeInt(HEADER_BYTES + nodes.length * NODE_BYTES);
+        for (int i = 0; i < nodes.length; i++) {
+            out.writeFloat(nodes[i].lat);
+            out.writeFloat(nodes[i].lon);
+            out.writeInt(nameOffsets[i]);
+        }
+        out.write(names.toByteArray());
+        return bytes.toByteArray();
+    }
+}